@@ -1,6 +1,9 @@
+import java.security.MessageDigest
+
 plugins {
     id("java")
     application
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "edu.kit.kastel.logic"
@@ -28,4 +31,163 @@ java {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// the compile cache keys its entries by a hash of the compiled classes, so a rebuilt compiler never gets the
+// executables of another build, even if the class files were replaced in place
+val generateBuildId by tasks.registering {
+    val classes = sourceSets.main.get().java.destinationDirectory
+    val output = layout.buildDirectory.dir("generated/buildId")
+    inputs.dir(classes).withPathSensitivity(PathSensitivity.RELATIVE)
+    outputs.dir(output)
+    doLast {
+        val root = classes.get().asFile
+        val digest = MessageDigest.getInstance("SHA-256")
+        root.walk().filter { it.isFile }.sortedBy { it.relativeTo(root).invariantSeparatorsPath }.forEach {
+            digest.update(it.relativeTo(root).invariantSeparatorsPath.toByteArray())
+            digest.update(0.toByte())
+            digest.update(it.readBytes())
+        }
+        val file = output.get().file("edu/kit/kastel/vads/compiler/build-id").asFile
+        file.parentFile.mkdirs()
+        file.writeText(digest.digest().joinToString("") { "%02x".format(it) })
+    }
+}
+
+sourceSets.main {
+    output.dir(mapOf("builtBy" to generateBuildId), layout.buildDirectory.dir("generated/buildId"))
+}
+jmh {
+    jmhVersion = "1.37"
+    resultFormat = "JSON"
+    // keep the results of several runs around for comparison, e.g. ./gradlew jmh -PjmhResults=build/results/jmh/before.json
+    resultsFile = layout.projectDirectory.file(
+        providers.gradleProperty("jmhResults").orElse("build/results/jmh/results.json")
+    )
+    // e.g. ./gradlew jmh -PjmhSizes=100,10000 -PjmhIncludes=Backend
+    providers.gradleProperty("jmhSizes").orNull?.let {
+        benchmarkParameters.put("statements", objects.listProperty<String>().value(it.split(",")))
+    }
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+}
+
+// AOT cache (JEP 483): a training run records which classes are loaded and linked,
+// so later runs can map them from the cache instead of loading and linking them again.
+// The cache is only valid for the exact JDK and module path it was created with,
+// which is why it is trained in the installation of the "aot" distribution itself.
+abstract class AotTraining @Inject constructor(private val exec: ExecOperations) : DefaultTask() {
+    @get:Nested
+    abstract val launcher: Property<JavaLauncher>
+
+    // the jars of the installation, in the order the start script puts them on the module path
+    @get:InputFiles
+    abstract val modulePath: ConfigurableFileCollection
+
+    @get:Input
+    abstract val mainModule: Property<String>
+
+    @get:Input
+    abstract val mainClass: Property<String>
+
+    @get:InputDirectory
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val corpus: DirectoryProperty
+
+    // sizes of the additionally generated training programs, in statements
+    @get:Input
+    abstract val generatedSizes: ListProperty<Int>
+
+    @get:Internal
+    abstract val workDirectory: DirectoryProperty
+
+    @get:OutputFile
+    abstract val cache: RegularFileProperty
+
+    @TaskAction
+    fun train() {
+        val work = workDirectory.get().asFile
+        work.deleteRecursively()
+        work.resolve("out").mkdirs()
+        val java = launcher.get().executablePath.asFile.absolutePath
+        // like the start script, which passes an empty class path
+        val modules = listOf("-classpath", "", "--module-path", modulePath.files.joinToString(File.pathSeparator) { it.canonicalPath })
+        val module = mainModule.get()
+
+        val programs = corpus.get().asFile.listFiles { file -> file.extension == "l1" }!!.sorted().toMutableList()
+        for (size in generatedSizes.get()) {
+            val program = work.resolve("generated-$size.l1")
+            exec.exec {
+                commandLine(listOf(java) + modules +
+                    listOf("--module", "$module/$module.generator.ProgramGenerator", program.absolutePath, size.toString()))
+            }
+            programs.add(program)
+        }
+        val manifest = work.resolve("manifest")
+        manifest.writeText(programs.joinToString("") { "${it.absolutePath}\t${work.resolve("out/${it.nameWithoutExtension}")}\n" })
+
+        val configuration = work.resolve("compiler.aotconf")
+        exec.exec {
+            commandLine(listOf(java, "-XX:AOTMode=record", "-XX:AOTConfiguration=$configuration") + modules +
+                listOf("--module", "$module/${mainClass.get()}", "--batch", manifest.absolutePath))
+            // the corpus contains invalid programs on purpose, so the error paths are trained as well
+            isIgnoreExitValue = true
+        }
+        exec.exec {
+            commandLine(listOf(java, "-XX:AOTMode=create", "-XX:AOTConfiguration=$configuration",
+                "-XX:AOTCache=${cache.get().asFile.absolutePath}") + modules + listOf("--module", "$module/${mainClass.get()}"))
+        }
+    }
+}
+
+val aotStartScripts by tasks.registering(CreateStartScripts::class) {
+    description = "Creates start scripts that use the AOT cache of the compiler-aot distribution."
+    val main = tasks.startScripts.get()
+    outputDir = layout.buildDirectory.dir("aot/scripts").get().asFile
+    applicationName = main.applicationName
+    mainModule = main.mainModule
+    mainClass = main.mainClass
+    classpath = main.classpath
+    // the start scripts don't expand variables in the default JVM options
+    defaultJvmOpts = listOf("-XX:AOTCache=APP_HOME_PLACEHOLDER/lib/compiler.aot")
+    doLast {
+        unixScript.writeText(unixScript.readText().replace("APP_HOME_PLACEHOLDER", "'\"\$APP_HOME\"'"))
+        windowsScript.writeText(windowsScript.readText().replace("APP_HOME_PLACEHOLDER", "%APP_HOME%"))
+    }
+}
+
+distributions {
+    create("aot") {
+        distributionBaseName = "compiler-aot"
+        contents {
+            into("lib") {
+                from(tasks.jar, configurations.runtimeClasspath)
+            }
+            into("bin") {
+                from(aotStartScripts)
+            }
+        }
+    }
+}
+
+val aotTraining by tasks.registering(AotTraining::class) {
+    group = "distribution"
+    description = "Compiles a training corpus with the compiler-aot installation and creates its AOT cache."
+    dependsOn("installAotDist")
+    val installation = layout.buildDirectory.dir("install/compiler-aot")
+    launcher = javaToolchains.launcherFor(java.toolchain)
+    modulePath.from(installation.map { dir -> tasks.startScripts.get().classpath!!.map { dir.file("lib/${it.name}") } })
+    mainModule = application.mainModule
+    mainClass = application.mainClass
+    corpus = layout.projectDirectory.dir("src/aot/corpus")
+    generatedSizes = listOf(10, 100, 1000)
+    workDirectory = layout.buildDirectory.dir("aot/training")
+    cache = installation.map { it.file("lib/compiler.aot") }
+}
+
+tasks.named<Sync>("installAotDist") {
+    // created by the training, which always runs afterward
+    preserve {
+        include("lib/compiler.aot")
+    }
+    finalizedBy(aotTraining)
+}
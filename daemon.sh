@@ -0,0 +1,5 @@
+#!/usr/bin/env sh
+BASE_DIR="$(dirname "$0")"
+BIN_DIR="$BASE_DIR/build/install/compiler/bin"
+SOCKET="${COMPILER_DAEMON_SOCKET:-$BASE_DIR/build/compiler.sock}"
+exec $BIN_DIR/compiler --daemon "$SOCKET"
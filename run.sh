@@ -1,3 +1,31 @@
 #!/usr/bin/env sh
-BIN_DIR="$(dirname "$0")/build/install/compiler/bin"
+BASE_DIR="$(dirname "$0")"
+BIN_DIR="$BASE_DIR/build/install/compiler/bin"
+LIB_DIR="$BASE_DIR/build/install/compiler/lib"
+SOCKET="${COMPILER_DAEMON_SOCKET:-$BASE_DIR/build/compiler.sock}"
+# if a compile daemon (see daemon.sh) is running, let its warmed-up JIT do the work;
+# it only takes an input and an output file, any options are handled by a compiler of its own
+case "$1" in
+    -*) ;;
+    *)
+        if [ -S "$SOCKET" ] && [ $# -eq 2 ]; then
+            for JAR in "$LIB_DIR"/compiler-*.jar; do
+                break
+            done
+            if [ -f "$JAR" ]; then
+                "${JAVA_HOME:+$JAVA_HOME/bin/}java" -Xshare:auto -XX:TieredStopAtLevel=1 -XX:+UseSerialGC \
+                    -cp "$JAR" edu.kit.kastel.vads.compiler.daemon.CompileClient "$SOCKET" "$@"
+                STATUS=$?
+                # 75 (CompileClient.SERVER_UNAVAILABLE): no daemon answered, e.g. it crashed and left its socket
+                if [ "$STATUS" -ne 75 ]; then
+                    exit "$STATUS"
+                fi
+            fi
+        fi
+        ;;
+esac
+# prefer the installation with an AOT cache (./gradlew installAotDist), it starts faster
+if [ -x "$BASE_DIR/build/install/compiler-aot/bin/compiler" ]; then
+    BIN_DIR="$BASE_DIR/build/install/compiler-aot/bin"
+fi
 $BIN_DIR/compiler "$@"
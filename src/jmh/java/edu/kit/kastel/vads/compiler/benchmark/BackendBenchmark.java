@@ -0,0 +1,84 @@
+package edu.kit.kastel.vads.compiler.benchmark;
+
+import edu.kit.kastel.vads.compiler.backend.aasm.CodeGenerator;
+import edu.kit.kastel.vads.compiler.backend.aasm.instructions.AbstractInstruction;
+import edu.kit.kastel.vads.compiler.backend.optimization.ValuePropagation;
+import edu.kit.kastel.vads.compiler.backend.x86_64.analysis.FactDatabase;
+import edu.kit.kastel.vads.compiler.backend.x86_64.analysis.LivenessAnalysis;
+import edu.kit.kastel.vads.compiler.backend.x86_64.regalloc.GraphColoringRegisterAllocator;
+import edu.kit.kastel.vads.compiler.backend.x86_64.regalloc.InterferenceGraph;
+import edu.kit.kastel.vads.compiler.backend.x86_64.regalloc.InterferenceGraphGenerator;
+import edu.kit.kastel.vads.compiler.generator.ProgramGenerator;
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.SsaTranslation;
+import edu.kit.kastel.vads.compiler.ir.optimize.LocalValueNumbering;
+import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Benchmarks the phases from abstract assembly generation to register allocation.
+/// Each benchmark starts from the output of the previous phase, which is computed once per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BackendBenchmark {
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int statements;
+
+    /// The register pressure of the generated program.
+    @Param({"8", "32"})
+    public int liveVariables;
+
+    private List<IrGraph> graphs;
+    private List<AbstractInstruction> aasm;
+    private FactDatabase database;
+    private InterferenceGraph interferenceGraph;
+
+    @Setup
+    public void setUp() {
+        ProgramGenerator.Settings defaults = ProgramGenerator.Settings.ofSize(this.statements);
+        ProgramGenerator.Settings settings = new ProgramGenerator.Settings(this.statements, defaults.variables(),
+                this.liveVariables, defaults.expressionDepth());
+        ProgramTree program = new ProgramGenerator(0, settings).generate().tree();
+        this.graphs = new ArrayList<>();
+        for (FunctionTree function : program.topLevelTrees()) {
+            this.graphs.add(new SsaTranslation(function, new LocalValueNumbering()).translate());
+        }
+        this.aasm = new CodeGenerator().generateCode(this.graphs);
+        ValuePropagation propagation = new ValuePropagation();
+        while (propagation.optimize(this.aasm)) {
+            // until fixpoint, like the x86-64 code generator does
+        }
+        this.database = liveness();
+        this.interferenceGraph = interferenceGraph();
+    }
+
+    @Benchmark
+    public List<AbstractInstruction> aasmCodeGenerator() {
+        return new CodeGenerator().generateCode(this.graphs);
+    }
+
+    @Benchmark
+    public FactDatabase liveness() {
+        FactDatabase facts = new FactDatabase(this.aasm.size());
+        new LivenessAnalysis(facts).analyse(this.aasm);
+        return facts;
+    }
+
+    @Benchmark
+    public InterferenceGraph interferenceGraph() {
+        return new InterferenceGraphGenerator().generateGraph(this.aasm, this.database);
+    }
+
+    @Benchmark
+    public GraphColoringRegisterAllocator registerAllocator() {
+        return new GraphColoringRegisterAllocator(this.aasm, this.interferenceGraph);
+    }
+}
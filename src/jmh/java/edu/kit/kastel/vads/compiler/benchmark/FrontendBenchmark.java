@@ -0,0 +1,82 @@
+package edu.kit.kastel.vads.compiler.benchmark;
+
+import edu.kit.kastel.vads.compiler.generator.ProgramGenerator;
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.SsaTranslation;
+import edu.kit.kastel.vads.compiler.ir.optimize.LocalValueNumbering;
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.lexer.TokenStore;
+import edu.kit.kastel.vads.compiler.parser.Parser;
+import edu.kit.kastel.vads.compiler.parser.TokenSource;
+import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
+import edu.kit.kastel.vads.compiler.semantic.SemanticAnalysis;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Benchmarks the phases from lexing to SSA construction.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FrontendBenchmark {
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int statements;
+
+    private Path sourceFile;
+    private TokenStore tokens;
+    private ProgramTree program;
+
+    @Setup
+    public void setUp() throws IOException {
+        String source = new ProgramGenerator(0, ProgramGenerator.Settings.ofSize(this.statements)).generate().source();
+        // lex from a file, like the compiler does
+        this.sourceFile = Files.createTempFile("benchmark", ".l1");
+        Files.writeString(this.sourceFile, source);
+        this.tokens = TokenStore.lexAll(Lexer.forString(source));
+        this.program = new Parser(new TokenSource(this.tokens)).parseProgram();
+        new SemanticAnalysis(this.program).analyze();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.sourceFile);
+    }
+
+    @Benchmark
+    public void lexer(Blackhole blackhole) throws IOException {
+        Lexer lexer = Lexer.forPath(this.sourceFile);
+        while (lexer.advance()) {
+            blackhole.consume(lexer.kind());
+        }
+    }
+
+    @Benchmark
+    public ProgramTree parser() {
+        return new Parser(new TokenSource(this.tokens)).parseProgram();
+    }
+
+    @Benchmark
+    public ProgramTree semanticAnalysis() {
+        new SemanticAnalysis(this.program).analyze();
+        return this.program;
+    }
+
+    @Benchmark
+    public List<IrGraph> ssaTranslation() {
+        List<IrGraph> graphs = new ArrayList<>();
+        for (FunctionTree function : this.program.topLevelTrees()) {
+            graphs.add(new SsaTranslation(function, new LocalValueNumbering()).translate());
+        }
+        return graphs;
+    }
+}
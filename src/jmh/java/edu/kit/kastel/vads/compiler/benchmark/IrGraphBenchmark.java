@@ -0,0 +1,115 @@
+package edu.kit.kastel.vads.compiler.benchmark;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Benchmarks visiting the edges of all nodes of a graph,
+/// through the views of [IrGraph], its indexed accessors, and copies like the graph used to return.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IrGraphBenchmark {
+    @Param({"1000000"})
+    public int nodes;
+
+    /// The number of distinct constants, each of them is a predecessor of `nodes / constants` additions.
+    @Param({"1000"})
+    public int constants;
+
+    private IrGraph graph;
+
+    @Setup
+    public void setUp() {
+        this.graph = new IrGraph("benchmark");
+        Block block = this.graph.startBlock();
+        ConstIntNode[] constants = new ConstIntNode[this.constants];
+        for (int i = 0; i < constants.length; i++) {
+            constants[i] = new ConstIntNode(block, i);
+        }
+        Node previous = constants[0];
+        while (this.graph.nodeCount() < this.nodes) {
+            previous = new AddNode(block, previous, constants[this.graph.nodeCount() % constants.length]);
+        }
+    }
+
+    @Benchmark
+    public long predecessorsIndexed() {
+        long sum = 0;
+        for (int id = 0; id < this.graph.nodeCount(); id++) {
+            Node node = this.graph.node(id);
+            for (int i = 0; i < node.predecessorCount(); i++) {
+                sum += node.predecessor(i).id();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long predecessorsView() {
+        long sum = 0;
+        for (int id = 0; id < this.graph.nodeCount(); id++) {
+            for (Node predecessor : this.graph.node(id).predecessors()) {
+                sum += predecessor.id();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long predecessorsCopy() {
+        long sum = 0;
+        for (int id = 0; id < this.graph.nodeCount(); id++) {
+            for (Node predecessor : List.copyOf(this.graph.node(id).predecessors())) {
+                sum += predecessor.id();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long successorsIndexed() {
+        long sum = 0;
+        for (int id = 0; id < this.graph.nodeCount(); id++) {
+            Node node = this.graph.node(id);
+            for (int i = 0; i < this.graph.successorCount(node); i++) {
+                sum += this.graph.successorAt(node, i).id();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long successorsView() {
+        long sum = 0;
+        for (int id = 0; id < this.graph.nodeCount(); id++) {
+            for (Node successor : this.graph.successors(this.graph.node(id))) {
+                sum += successor.id();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long successorsCopy() {
+        long sum = 0;
+        for (int id = 0; id < this.graph.nodeCount(); id++) {
+            var copy = Collections.unmodifiableSet(new LinkedHashSet<>(this.graph.successors(this.graph.node(id))));
+            for (Node successor : copy) {
+                sum += successor.id();
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,205 @@
+package edu.kit.kastel.vads.compiler;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/// A content-addressed cache for compiled executables.
+///
+/// Entries are keyed by a hash of the source, the compiler build and the flags that influence the output.
+/// Entries are written to a temporary file first and then moved into place atomically,
+/// so several compiler processes can share one cache directory.
+/// When the cache grows beyond its size limit, the least recently used entries are deleted.
+/// The total size of the entries is tracked in a file of the cache directory,
+/// so the directory is only scanned when the limit may have been exceeded.
+public class CompileCache {
+    private static final String ENTRY_SUFFIX = ".bin";
+    private static final String SIZE_FILE = "size";
+    // generated from the compiled classes by the build, see the generateBuildId task
+    private static final String BUILD_ID_RESOURCE = "build-id";
+    static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+    // file locks belong to the whole JVM, so threads that store concurrently must not try to lock the size file twice
+    private static final Object SIZE_LOCK = new Object();
+
+    private final Path directory;
+    private final long maxSize;
+    private final String buildId;
+
+    /// @param buildId identifies the compiler build, entries of other builds are never used
+    public CompileCache(Path directory, long maxSize, String buildId) throws IOException {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.buildId = buildId;
+        Files.createDirectories(directory);
+    }
+
+    /// Creates the cache configured by the `compileCache` property or the `COMPILE_CACHE` environment variable.
+    /// The size limit in bytes can be set via `compileCacheSize` or `COMPILE_CACHE_SIZE`.
+    /// A value that is not a positive number is ignored, as it is read for every compilation.
+    ///
+    /// @return the cache or `null` if caching is not enabled,
+    /// or if the compiler was not built with a build id, which a stale entry could not be told apart without
+    public static @Nullable CompileCache fromConfiguration() throws IOException {
+        String directory = System.getProperty("compileCache", System.getenv("COMPILE_CACHE"));
+        if (directory == null || directory.isEmpty()) {
+            return null;
+        }
+        String buildId = buildId();
+        if (buildId == null) {
+            return null;
+        }
+        return new CompileCache(Path.of(directory), maxSize(), buildId);
+    }
+
+    /// {@return the configured size limit in bytes, the default if none or no positive number is configured}
+    static long maxSize() {
+        String size = System.getProperty("compileCacheSize", System.getenv("COMPILE_CACHE_SIZE"));
+        if (size == null) {
+            return DEFAULT_MAX_SIZE;
+        }
+        try {
+            long maxSize = Long.parseLong(size.strip());
+            return maxSize > 0 ? maxSize : DEFAULT_MAX_SIZE;
+        } catch (NumberFormatException e) {
+            return DEFAULT_MAX_SIZE;
+        }
+    }
+
+    /// {@return the cache key for the given source and the flags that influence the generated executable}
+    public String key(byte[] source, String... flags) {
+        MessageDigest digest = sha256();
+        digest.update(this.buildId.getBytes(StandardCharsets.UTF_8));
+        for (String flag : flags) {
+            digest.update((byte) 0);
+            digest.update(flag.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+        digest.update(source);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /// Copies the cached executable for `key` to `output`.
+    ///
+    /// @return true if there was an entry, false otherwise
+    public boolean restore(String key, Path output) throws IOException {
+        Path entry = entry(key);
+        try {
+            Files.copy(entry, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            // the modification time doubles as the last access time for the eviction
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (NoSuchFileException _) {
+            // not cached or just evicted by another process
+            return false;
+        }
+    }
+
+    /// Stores a copy of `executable` as the entry for `key` and evicts old entries if required.
+    public void store(String key, Path executable) throws IOException {
+        Path temporary = Files.createTempFile(this.directory, key, ".tmp");
+        long size;
+        try {
+            Files.copy(executable, temporary, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            Files.setLastModifiedTime(temporary, FileTime.fromMillis(System.currentTimeMillis()));
+            size = Files.size(temporary);
+            Files.move(temporary, entry(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        addSize(size);
+    }
+
+    /// Adds `added` bytes to the total size in the size file, and evicts entries if that exceeds the limit.
+    ///
+    /// The total may be too large, for example if an entry was replaced or deleted by someone else,
+    /// which only causes an earlier scan. It is never too small, as the size file is locked while it is updated.
+    private void addSize(long added) throws IOException {
+        synchronized (SIZE_LOCK) {
+            try (FileChannel channel = FileChannel.open(this.directory.resolve(SIZE_FILE),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+                 FileLock _ = channel.lock()) {
+                ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+                // a new or incomplete size file means the total is unknown
+                long total = channel.read(buffer, 0) == Long.BYTES ? buffer.getLong(0) + added : Long.MAX_VALUE;
+                if (total > this.maxSize) {
+                    total = evict();
+                }
+                channel.write(buffer.clear().putLong(0, total), 0);
+            }
+        }
+    }
+
+    /// Deletes the least recently used entries until the cache fits into its limit.
+    ///
+    /// @return the total size of the remaining entries
+    private long evict() throws IOException {
+        record Entry(Path path, long size, FileTime lastUsed) {
+        }
+        List<Entry> entries = new ArrayList<>();
+        long totalSize = 0;
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!file.getFileName().toString().endsWith(ENTRY_SUFFIX)) {
+                    continue;
+                }
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime()));
+                    totalSize += attributes.size();
+                } catch (NoSuchFileException _) {
+                    // evicted concurrently
+                }
+            }
+        }
+        if (totalSize <= this.maxSize) {
+            return totalSize;
+        }
+        entries.sort(Comparator.comparing(Entry::lastUsed));
+        for (Entry entry : entries) {
+            if (totalSize <= this.maxSize) {
+                break;
+            }
+            Files.deleteIfExists(entry.path());
+            totalSize -= entry.size();
+        }
+        return totalSize;
+    }
+
+    private Path entry(String key) {
+        return this.directory.resolve(key + ENTRY_SUFFIX);
+    }
+
+    /// {@return the hash of the compiled classes that the build stores as a resource, `null` if there is none}
+    private static @Nullable String buildId() throws IOException {
+        try (InputStream resource = CompileCache.class.getResourceAsStream(BUILD_ID_RESOURCE)) {
+            if (resource == null) {
+                return null;
+            }
+            String buildId = new String(resource.readAllBytes(), StandardCharsets.UTF_8).strip();
+            return buildId.isEmpty() ? null : buildId;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 is always available", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package edu.kit.kastel.vads.compiler;
+
+import org.jspecify.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/// Maps offsets in a source file to lines and columns.
+///
+/// The offsets at which lines start are only collected when a position is requested for the first time,
+/// then positions are found by binary search.
+/// Both `\n` and `\r` end a line, so `\r\n` counts as two line breaks.
+/// Columns count UTF-16 code units like the [String] of the line would, not bytes of the UTF-8 source.
+public final class LineMap {
+    private final ByteBuffer source;
+    private int @Nullable [] lineStarts;
+
+    /// The buffer must not be modified afterward.
+    public LineMap(ByteBuffer source) {
+        this.source = source;
+    }
+
+    public Position position(int offset) {
+        int[] starts = lineStarts();
+        int line = Arrays.binarySearch(starts, offset);
+        if (line < 0) {
+            // the line that starts before the offset
+            line = -line - 2;
+        }
+        return new Position.SimplePosition(line, column(starts[line], offset));
+    }
+
+    /// {@return the number of UTF-16 code units that the UTF-8 bytes from `start` to `end` decode to}
+    private int column(int start, int end) {
+        int column = 0;
+        for (int i = start; i < end; i++) {
+            int b = this.source.get(i) & 0xFF;
+            if ((b & 0xC0) == 0x80) {
+                // a continuation byte, counted with the byte that starts the sequence
+                continue;
+            }
+            // a sequence of four bytes encodes a supplementary character, which takes a surrogate pair
+            column += (b & 0xF8) == 0xF0 ? 2 : 1;
+        }
+        return column;
+    }
+
+    /// {@return the [Span] of a [PackedSpan]}
+    public Span span(long span) {
+        return new Span.SimpleSpan(position(PackedSpan.start(span)), position(PackedSpan.end(span)));
+    }
+
+    private synchronized int[] lineStarts() {
+        if (this.lineStarts == null) {
+            int[] starts = new int[16];
+            int lines = 1;
+            for (int i = 0; i < this.source.limit(); i++) {
+                byte b = this.source.get(i);
+                if (b == '\n' || b == '\r') {
+                    if (lines == starts.length) {
+                        starts = Arrays.copyOf(starts, lines * 2);
+                    }
+                    starts[lines++] = i + 1;
+                }
+            }
+            this.lineStarts = Arrays.copyOf(starts, lines);
+        }
+        return this.lineStarts;
+    }
+}
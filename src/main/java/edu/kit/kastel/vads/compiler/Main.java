@@ -1,102 +1,339 @@
 package edu.kit.kastel.vads.compiler;
 
 import edu.kit.kastel.vads.compiler.backend.x86_64.CodeGenerator;
+import edu.kit.kastel.vads.compiler.backend.x86_64.emit.AssemblerCrossCheck;
+import edu.kit.kastel.vads.compiler.backend.x86_64.emit.ElfWriter;
+import edu.kit.kastel.vads.compiler.backend.x86_64.emit.GccAssembler;
+import edu.kit.kastel.vads.compiler.batch.BatchCompiler;
+import edu.kit.kastel.vads.compiler.daemon.CompileServer;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
 import edu.kit.kastel.vads.compiler.ir.SsaTranslation;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.optimize.AlgebraicSimplification;
+import edu.kit.kastel.vads.compiler.ir.optimize.ConstantFolding;
+import edu.kit.kastel.vads.compiler.ir.optimize.DeadNodeElimination;
 import edu.kit.kastel.vads.compiler.ir.optimize.LocalValueNumbering;
+import edu.kit.kastel.vads.compiler.ir.optimize.Optimizer;
 import edu.kit.kastel.vads.compiler.ir.util.YCompPrinter;
 import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.lexer.ParallelLexer;
+import edu.kit.kastel.vads.compiler.lexer.TokenStore;
 import edu.kit.kastel.vads.compiler.parser.ParseException;
 import edu.kit.kastel.vads.compiler.parser.Parser;
 import edu.kit.kastel.vads.compiler.parser.TokenSource;
-import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
 import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
 import edu.kit.kastel.vads.compiler.semantic.SemanticAnalysis;
 import edu.kit.kastel.vads.compiler.semantic.SemanticException;
+import org.jspecify.annotations.Nullable;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public class Main {
+    private static final long PARALLEL_LEXING_MINIMUM = 4 << 20;
+    private static final int LEXING_CHUNK_SIZE = 256 << 10;
+
     public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].startsWith("--stats")) {
+            // same as passing -Dstats, -Dstats=text or -Dstats=json to the JVM
+            switch (args[0]) {
+                case "--stats", "--stats=text" -> System.setProperty("stats", "text");
+                case "--stats=json" -> System.setProperty("stats", "json");
+                default -> {
+                    System.err.println("Invalid arguments: Expected --stats, --stats=text or --stats=json but got " + args[0]);
+                    System.exit(3);
+                }
+            }
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        if (args.length >= 2 && args[0].equals("--batch")) {
+            System.exit(batch(Arrays.asList(args).subList(1, args.length)));
+        }
+        if (args.length == 2 && args[0].equals("--daemon")) {
+            new CompileServer().serve(Path.of(args[1]));
+            return;
+        }
+        if (args.length == 1 && args[0].equals("--daemon-stdio")) {
+            new CompileServer().serveStdio(System.in, System.out);
+            return;
+        }
         if (args.length != 2) {
             System.err.println("Invalid arguments: Expected one input file and one output file");
             System.exit(3);
         }
         Path input = Path.of(args[0]);
         Path output = Path.of(args[1]);
-        ProgramTree program = lexAndParse(input);
-        try {
-            new SemanticAnalysis(program).analyze();
-        } catch (SemanticException e) {
-            e.printStackTrace();
-            System.exit(7);
-            return;
+        int exitCode = compile(input, output, System.err);
+        if (exitCode != 0) {
+            System.exit(exitCode);
         }
-        List<IrGraph> graphs = new ArrayList<>();
-        for (FunctionTree function : program.topLevelTrees()) {
-            SsaTranslation translation = new SsaTranslation(function, new LocalValueNumbering());
-            graphs.add(translation.translate());
+    }
+
+    /// Compiles the files listed in a manifest (`-` for stdin), or given as alternating input and output paths.
+    private static int batch(List<String> args) throws IOException {
+        List<BatchCompiler.Job> jobs;
+        try {
+            if (args.size() == 1) {
+                jobs = BatchCompiler.readManifest(args.getFirst().equals("-")
+                        ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                        : Files.newBufferedReader(Path.of(args.getFirst())));
+            } else {
+                jobs = BatchCompiler.pairs(args);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Invalid arguments: " + e.getMessage());
+            return 3;
         }
+        return BatchCompiler.fromConfiguration().compile(jobs, System.out, System.err);
+    }
 
-        if ("vcg".equals(System.getenv("DUMP_GRAPHS")) || "vcg".equals(System.getProperty("dumpGraphs"))) {
-            Path tmp = output.toAbsolutePath().resolveSibling("graphs");
-            Files.createDirectory(tmp);
-            for (IrGraph graph : graphs) {
-                dumpGraph(graph, tmp, "before-codegen");
+    /// Runs the whole pipeline for a single input file.
+    /// Diagnostics are written to `diagnostics` instead of terminating the JVM,
+    /// so this can be called repeatedly from a long-running process.
+    ///
+    /// @return `0` on success, `42` for lexer/parser errors, `7` for semantic errors and `4` if assembling failed
+    public static int compile(Path input, Path output, PrintStream diagnostics) throws IOException {
+        try {
+            return compile(input, output, diagnostics, Runnable::run).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
+            throw e;
         }
+    }
 
-        // TODO: generate assembly and invoke gcc instead of generating abstract assembly
-        String generatedAssembly = new CodeGenerator().generateCode(graphs);
-        if (Constants.DEBUG) {
-            System.out.println(generatedAssembly);
+    /// Like [#compile(Path, Path, PrintStream)], but only the Java side of the compilation runs on the calling thread.
+    /// Waiting for the assembler is done on `assemblers`, so the calling thread can already continue with the next file.
+    public static CompletableFuture<Integer> compile(Path input, Path output, PrintStream diagnostics, Executor assemblers)
+            throws IOException {
+        String statsFormat = statsFormat();
+        PhaseStatistics statistics = statsFormat == null ? PhaseStatistics.DISABLED : PhaseStatistics.enabled();
+        CompletableFuture<Integer> exitCode = compile(input, output, diagnostics, statistics, assemblers);
+        if (statsFormat == null) {
+            return exitCode;
         }
+        return exitCode.thenApply(code -> {
+            diagnostics.print(statsFormat.equals("json") ? statistics.toJson() + "\n" : statistics.toText());
+            return code;
+        });
+    }
 
+    private static CompletableFuture<Integer> compile(Path input, Path output, PrintStream diagnostics,
+                                                      PhaseStatistics statistics, Executor assemblers) throws IOException {
+        CompileCache cache = CompileCache.fromConfiguration();
+        if (cache == null || dumpGraphs()) {
+            return compile(Lexer.forPath(input), output, diagnostics, statistics, assemblers);
+        }
+        byte[] source = Files.readAllBytes(input);
+        String key = cache.key(source, backend());
+        if (statistics.measure("cache lookup", () -> cache.restore(key, output))) {
+            return CompletableFuture.completedFuture(0);
+        }
+        return compile(Lexer.forBuffer(ByteBuffer.wrap(source)), output, diagnostics, statistics, assemblers).thenApply(exitCode -> {
+            if (exitCode == 0) {
+                try {
+                    cache.store(key, output);
+                } catch (IOException e) {
+                    // the executable is fine, it just won't be cached
+                    e.printStackTrace(diagnostics);
+                }
+            }
+            return exitCode;
+        });
+    }
+
+    private static CompletableFuture<Integer> compile(Lexer lexer, Path output, PrintStream diagnostics,
+                                                      PhaseStatistics statistics, Executor assemblers) throws IOException {
+        String backend = backend();
+        // gcc starts up while the program is compiled
+        GccAssembler assembler = backend.equals("gcc") ? GccAssembler.start(output) : null;
         try {
-            Process assembler =
-                    new ProcessBuilder("gcc", "-o", output.toAbsolutePath().toString(), "-x", "assembler", "-").redirectErrorStream(true)
-                            .start();
-            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(assembler.getOutputStream()))) {
-                // write the generated assembly to stdin of gcc
-                writer.write(generatedAssembly);
-                writer.flush();
+            ProgramTree program;
+            try {
+                program = lexAndParse(lexer, statistics);
+            } catch (ParseException e) {
+                e.printStackTrace(diagnostics);
+                return CompletableFuture.completedFuture(42);
             }
+            try {
+                statistics.measure("semantic analysis", () -> {
+                    new SemanticAnalysis(program, statistics).analyze();
+                    return program;
+                });
+            } catch (SemanticException e) {
+                e.span().ifPresent(span -> diagnostics.println("Semantic error at " + lexer.lineMap().span(span)));
+                e.printStackTrace(diagnostics);
+                return CompletableFuture.completedFuture(7);
+            }
+            // functions are translated independently, the result keeps their order;
+            // each of them is measured on the thread it runs on, which is where its allocations are counted
+            List<IrGraph> graphs = program.topLevelTrees().parallelStream()
+                    .map(function -> statistics.measure("ssa translation",
+                            () -> new SsaTranslation(function, optimizer()).translate(), Main::nodeCount, "nodes"))
+                    .toList();
+            graphs.parallelStream().forEach(graph -> statistics.measure("dead node elimination",
+                    () -> new DeadNodeElimination(graph).run(), removed -> removed, "removed"));
 
-            int exitCode = assembler.waitFor();
-            if (exitCode != 0) {
-                // when assembler fails, read its output and print it to stderr
-                System.err.println("Error during assembler phase:");
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(assembler.getInputStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        System.err.println(line);
+            if (dumpGraphs()) {
+                Path tmp = output.toAbsolutePath().resolveSibling("graphs");
+                Files.createDirectory(tmp);
+                for (IrGraph graph : graphs) {
+                    dumpGraph(graph, tmp, "before-codegen");
+                }
+            }
+
+            if (assembler == null) {
+                try {
+                    return CompletableFuture.completedFuture(
+                            assembleInProcess(graphs, output, backend.equals("elf-check"), diagnostics, statistics));
+                } catch (UnsupportedOperationException e) {
+                    // the encoder can't handle this program (yet), gcc remains the fallback
+                    if (Constants.DEBUG) {
+                        e.printStackTrace(diagnostics);
                     }
+                } catch (InterruptedException e) {
+                    e.printStackTrace(diagnostics);
+                    return CompletableFuture.completedFuture(4);
                 }
-                System.exit(4);
+                assembler = GccAssembler.start(output);
             }
 
-        } catch (UnsupportedOperationException | IOException | InterruptedException e) {
-            // some error occurred during assembling
-            e.printStackTrace();
-            System.exit(4);
+            CodeGenerator generator = new CodeGenerator(statistics);
+            try {
+                if (Constants.DEBUG) {
+                    String generatedAssembly = generator.generateCode(graphs);
+                    System.out.println(generatedAssembly);
+                    assembler.input().write(generatedAssembly);
+                } else {
+                    // each function goes to gcc as soon as it is generated
+                    generator.generateCode(graphs, assembler.input());
+                }
+                assembler.closeInput();
+            } catch (IOException e) {
+                // gcc has terminated early, its exit code and output tell why
+                if (Constants.DEBUG) {
+                    e.printStackTrace(diagnostics);
+                }
+            }
+
+            GccAssembler gcc = assembler;
+            return CompletableFuture.supplyAsync(
+                    () -> statistics.measure("gcc", () -> gcc.finish(diagnostics), _ -> output.toFile().length(), "bytes"),
+                    assemblers);
+        } finally {
+            // don't leave gcc waiting for input if the compilation failed
+            if (assembler != null) {
+                assembler.abort();
+            }
+        }
+    }
+
+    /// Encodes the program without gcc and writes a static executable.
+    /// When `check` is set, the machine code is additionally compared to what gcc assembles from the textual assembly.
+    private static int assembleInProcess(List<IrGraph> graphs, Path output, boolean check, PrintStream diagnostics,
+                                         PhaseStatistics statistics) throws IOException, InterruptedException {
+        CodeGenerator generator = new CodeGenerator(statistics);
+        byte[] code = generator.generateMachineCode(graphs);
+        if (check) {
+            Optional<String> mismatch = AssemblerCrossCheck.compare(generator.generateCode(graphs), code);
+            if (mismatch.isPresent()) {
+                diagnostics.println("Error during assembler phase: machine code differs from gcc: " + mismatch.get());
+                return 4;
+            }
+        }
+        statistics.measure("elf writer", () -> {
+            ElfWriter.writeExecutable(output, code);
+            return output;
+        }, file -> file.toFile().length(), "bytes");
+        return 0;
+    }
+
+    /// {@return `gcc` (default), `elf` to write the executable in-process, or `elf-check` to additionally verify it with gcc}
+    private static String backend() {
+        String backend = System.getProperty("backend", System.getenv("BACKEND"));
+        return backend == null ? "gcc" : backend;
+    }
+
+    private static boolean dumpGraphs() {
+        return "vcg".equals(System.getenv("DUMP_GRAPHS")) || "vcg".equals(System.getProperty("dumpGraphs"));
+    }
+
+    private static ProgramTree lexAndParse(Lexer lexer, PhaseStatistics statistics) {
+        int chunks = lexingChunks(lexer);
+        if (!statistics.isEnabled() && chunks == 1) {
+            return new Parser(new TokenSource(lexer)).parseProgram();
         }
+        // lex eagerly, so lexing and parsing can be measured separately
+        TokenStore tokens = statistics.measure("lexer",
+                () -> chunks == 1 ? TokenStore.lexAll(lexer) : ParallelLexer.lexAll(lexer, chunks),
+                TokenStore::limit, "tokens");
+        TokenSource tokenSource = new TokenSource(tokens);
+        return statistics.measure("parser", () -> new Parser(tokenSource).parseProgram(),
+                program -> program.topLevelTrees().size(), "functions");
     }
 
-    private static ProgramTree lexAndParse(Path input) throws IOException {
+    /// {@return the number of chunks to lex the source in parallel, 1 to lex it sequentially while parsing}
+    /// Sources of at least `PARALLEL_LEXING` (or `-DparallelLexing`) bytes, 4 MiB by default, are lexed in parallel.
+    /// A value that is not a number is ignored, as the setting only affects how fast the source is lexed.
+    private static int lexingChunks(Lexer lexer) {
+        if (lexer.length() < parallelLexingMinimum()) {
+            return 1;
+        }
+        // enough chunks to balance the load, but not so small that synchronizing them dominates
+        int chunks = Math.min(lexer.length() / LEXING_CHUNK_SIZE, Runtime.getRuntime().availableProcessors() * 4);
+        return Math.max(2, chunks);
+    }
+
+    private static long parallelLexingMinimum() {
+        String minimum = System.getProperty("parallelLexing", System.getenv("PARALLEL_LEXING"));
+        if (minimum == null) {
+            return PARALLEL_LEXING_MINIMUM;
+        }
         try {
-            Lexer lexer = Lexer.forString(Files.readString(input));
-            TokenSource tokenSource = new TokenSource(lexer);
-            Parser parser = new Parser(tokenSource);
-            return parser.parseProgram();
-        } catch (ParseException e) {
-            e.printStackTrace();
-            System.exit(42);
-            throw new AssertionError("unreachable");
+            return Long.parseLong(minimum.strip());
+        } catch (NumberFormatException e) {
+            return PARALLEL_LEXING_MINIMUM;
+        }
+    }
+
+    /// {@return the optimizations applied to each node during SSA translation, a new one for each function}
+    private static Optimizer optimizer() {
+        // value numbering comes last, so it also deduplicates the constants created by the others
+        return new ConstantFolding().andThen(new AlgebraicSimplification()).andThen(new LocalValueNumbering());
+    }
+
+    /// {@return the number of nodes reachable from the end block}
+    private static long nodeCount(IrGraph graph) {
+        BitSet seen = new BitSet(graph.nodeCount());
+        Deque<Node> stack = new ArrayDeque<>(List.of(graph.endBlock()));
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (!seen.get(node.id())) {
+                seen.set(node.id());
+                for (int i = 0; i < node.predecessorCount(); i++) {
+                    stack.push(node.predecessor(i));
+                }
+                stack.add(node.block());
+            }
+        }
+        return seen.cardinality();
+    }
+
+    /// {@return `text` or `json` if statistics were requested via `-Dstats` or the `STATS` environment variable, `null` otherwise}
+    private static @Nullable String statsFormat() {
+        String stats = System.getProperty("stats", System.getenv("STATS"));
+        if (stats == null) {
+            return null;
         }
+        return stats.equals("json") ? "json" : "text";
     }
 
     private static void dumpGraph(IrGraph graph, Path path, String key) throws IOException {
@@ -0,0 +1,28 @@
+package edu.kit.kastel.vads.compiler;
+
+/// Source spans packed into a single `long`:
+/// the offset of the first byte in the upper 32 bits, and the offset after the last byte in the lower 32 bits.
+/// A [LineMap] turns them into a [Span] with lines and columns, which is only needed to report errors.
+public final class PackedSpan {
+
+    private PackedSpan() {
+
+    }
+
+    public static long of(int start, int end) {
+        return (long) start << 32 | Integer.toUnsignedLong(end);
+    }
+
+    public static int start(long span) {
+        return (int) (span >>> 32);
+    }
+
+    public static int end(long span) {
+        return (int) span;
+    }
+
+    /// {@return the span from the start of `span` to the end of `later`}
+    public static long merge(long span, long later) {
+        return of(start(span), end(later));
+    }
+}
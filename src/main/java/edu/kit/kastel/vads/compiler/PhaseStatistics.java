@@ -0,0 +1,136 @@
+package edu.kit.kastel.vads.compiler;
+
+import org.jspecify.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/// Collects wall time, allocated bytes and output size of the compiler phases.
+/// Allocations are measured on the current thread only,
+/// so a phase that runs on several threads must be measured within each of its tasks.
+///
+/// Measurements with the same name are added up into one entry, listed where the name was first recorded.
+/// This way a phase that runs once per function, possibly in parallel, is reported once for the whole program,
+/// with the time of all functions added up.
+public final class PhaseStatistics {
+    /// Runs all phases without measuring anything.
+    public static final PhaseStatistics DISABLED = new PhaseStatistics(false);
+
+    // null if the JVM can't measure the allocations of a thread
+    private static final com.sun.management.@Nullable ThreadMXBean THREADS = threadBean();
+
+    private final boolean enabled;
+    // by name, in the order they were first recorded
+    private final Map<String, Measurement> measurements = new LinkedHashMap<>();
+
+    private PhaseStatistics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static PhaseStatistics enabled() {
+        return new PhaseStatistics(true);
+    }
+
+    public <T, E extends Exception> T measure(String name, Phase<T, E> phase) throws E {
+        return measure(name, phase, _ -> -1, "");
+    }
+
+    /// Runs the phase and records it, using `size` to determine the size of its result in the given `unit`.
+    public <T, E extends Exception> T measure(String name, Phase<T, E> phase, ToLongFunction<? super T> size, String unit) throws E {
+        if (!this.enabled) {
+            return phase.run();
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        T result = phase.run();
+        long nanos = System.nanoTime() - start;
+        long allocated = allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore;
+        record(new Measurement(name, nanos, allocated, size.applyAsLong(result), unit));
+        return result;
+    }
+
+    /// Records a part of a phase whose time was measured by the phase itself.
+    /// Its allocations are unknown.
+    public void add(String name, long nanos) {
+        if (this.enabled) {
+            record(new Measurement(name, nanos, -1, -1, ""));
+        }
+    }
+
+    // functions are compiled in parallel
+    private synchronized void record(Measurement measurement) {
+        this.measurements.merge(measurement.name(), measurement, Measurement::plus);
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public synchronized String toText() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "%-24s %12s %16s %20s%n", "phase", "time [ms]", "allocated [B]", "output"));
+        for (Measurement m : this.measurements.values()) {
+            builder.append(String.format(Locale.ROOT, "%-24s %12.3f %16s %20s%n", m.name(), m.nanos() / 1e6,
+                    m.allocatedBytes() < 0 ? "n/a" : String.valueOf(m.allocatedBytes()),
+                    m.size() < 0 ? "" : m.size() + " " + m.unit()));
+        }
+        return builder.toString();
+    }
+
+    public synchronized String toJson() {
+        StringBuilder builder = new StringBuilder("{\"phases\":[");
+        boolean first = true;
+        for (Measurement m : this.measurements.values()) {
+            if (!first) {
+                builder.append(',');
+            }
+            first = false;
+            builder.append("{\"name\":\"").append(m.name()).append("\",\"nanos\":").append(m.nanos())
+                    .append(",\"allocatedBytes\":").append(m.allocatedBytes());
+            if (m.size() >= 0) {
+                builder.append(",\"size\":").append(m.size()).append(",\"unit\":\"").append(m.unit()).append('"');
+            }
+            builder.append('}');
+        }
+        return builder.append("]}").toString();
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS == null) {
+            return -1;
+        }
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.@Nullable ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean &&
+            bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    public interface Phase<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /// @param allocatedBytes `-1` if unknown
+    /// @param size `-1` if unknown
+    private record Measurement(String name, long nanos, long allocatedBytes, long size, String unit) {
+
+        /// {@return both measurements added up, unknown values stay unknown}
+        Measurement plus(Measurement other) {
+            return new Measurement(this.name, this.nanos + other.nanos,
+                    sumIfKnown(this.allocatedBytes, other.allocatedBytes), sumIfKnown(this.size, other.size), this.unit);
+        }
+
+        private static long sumIfKnown(long a, long b) {
+            return a < 0 || b < 0 ? -1 : a + b;
+        }
+    }
+}
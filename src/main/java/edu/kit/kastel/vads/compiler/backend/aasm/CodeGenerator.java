@@ -5,6 +5,7 @@ import edu.kit.kastel.vads.compiler.backend.aasm.instructions.AbstractInstructio
 import edu.kit.kastel.vads.compiler.backend.aasm.rules.*;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
+import org.jspecify.annotations.Nullable;
 
 import java.util.*;
 
@@ -15,9 +16,14 @@ public class CodeGenerator {
     public List<AbstractInstruction> generateCode(List<IrGraph> program) {
         List<AbstractInstruction> instructions = new ArrayList<>();
         for (IrGraph graph : program) {
-            AasmRegisterAllocator allocator = new AasmRegisterAllocator();
-            instructions.addAll(generateForGraph(graph, allocator));
+            instructions.addAll(generateCode(graph));
         }
+        return instructions;
+    }
+
+    /// Generates the code of a single function, with its own virtual registers.
+    public List<AbstractInstruction> generateCode(IrGraph graph) {
+        List<AbstractInstruction> instructions = generateForGraph(graph, new AasmRegisterAllocator());
 
         if (Constants.DEBUG) {
             System.out.println("AASM");
@@ -32,37 +38,41 @@ public class CodeGenerator {
 
     private List<AbstractInstruction> generateForGraph(IrGraph graph, AasmRegisterAllocator allocator) {
         List<AbstractInstruction> instructions = new ArrayList<>();
-        Map<Node, Pattern.Gen> patterns = new HashMap<>();
-        Set<Node> visited = new HashSet<>();
+        // indexed by the ids of the nodes
+        Pattern.Gen[] patterns = new Pattern.Gen[graph.nodeCount()];
+        BitSet visited = new BitSet(graph.nodeCount());
         scan(graph.endBlock(), instructions, patterns, visited, allocator);
 
         return instructions;
     }
 
-    private void scan(Node node, List<AbstractInstruction> instructions, Map<Node, Pattern.Gen> patterns, Set<Node> visited,
+    private void scan(Node node, List<AbstractInstruction> instructions, Pattern.@Nullable Gen[] patterns, BitSet visited,
                       AasmRegisterAllocator allocator) {
-        if (!visited.add(node)) {
+        if (visited.get(node.id())) {
             return; // this node was already encountered
         }
+        visited.set(node.id());
 
         // maximal munch
         for (Pattern rule : RULES) {
             var result = rule.apply(node, patterns, allocator);
             if (result.isPresent()) {
                 // this rule was applied, mark all nodes covered by it as visited
-                visited.addAll(result.get());
+                for (Node covered : result.get()) {
+                    visited.set(covered.id());
+                }
                 break; // don't check any more rules
             }
         }
         // the NoRuleFoundSentinel will ensure we will always apply a rule or throw
 
         // run recursively on all nodes before this one
-        for (Node predecessor : node.predecessors()) {
-            scan(predecessor, instructions, patterns, visited, allocator);
+        for (int i = 0; i < node.predecessorCount(); i++) {
+            scan(node.predecessor(i), instructions, patterns, visited, allocator);
         }
 
         // add instructions required for this node
-        Pattern.Gen codeGen = patterns.get(node);
+        Pattern.Gen codeGen = patterns[node.id()];
         if (codeGen != null) {
             instructions.addAll(codeGen.code());
         }
@@ -24,12 +24,12 @@ public class BinaryOperatorPattern implements Pattern {
 
 
     @Override
-    public Optional<List<Node>> apply(Node node, Map<Node, Gen> patterns, AasmRegisterAllocator allocator) {
+    public Optional<List<Node>> apply(Node node, @Nullable Gen[] patterns, AasmRegisterAllocator allocator) {
         if (node instanceof BinaryOperationNode binOp) {
             Node lhs = predecessorSkipProj(binOp, AddNode.LEFT);
             Node rhs = predecessorSkipProj(binOp, AddNode.RIGHT);
 
-            patterns.put(binOp, new BinaryOperatorCodeGen(mapOp(binOp), lhs, rhs, patterns, allocator));
+            patterns[binOp.id()] = new BinaryOperatorCodeGen(mapOp(binOp), lhs, rhs, patterns, allocator);
             return Optional.of(List.of(binOp));
         }
 
@@ -39,11 +39,11 @@ public class BinaryOperatorPattern implements Pattern {
     public static class BinaryOperatorCodeGen implements Gen {
         private final BinaryInstruction.Op op;
         private final Node lhs, rhs;
-        private final Map<Node, Gen> generationRules;
+        private final @Nullable Gen[] generationRules;
         private final AasmRegisterAllocator allocator;
         private @Nullable AbstractRegister destinationRegister;
 
-        private BinaryOperatorCodeGen(BinaryInstruction.Op op, Node lhs, Node rhs, Map<Node, Gen> generationRules,
+        private BinaryOperatorCodeGen(BinaryInstruction.Op op, Node lhs, Node rhs, @Nullable Gen[] generationRules,
                                       AasmRegisterAllocator allocator) {
             this.op = op;
             this.lhs = lhs;
@@ -62,8 +62,8 @@ public class BinaryOperatorPattern implements Pattern {
         public List<AbstractInstruction> code() {
             List<AbstractInstruction> instructions = new ArrayList<>();
 
-            var lhsRule = this.generationRules.get(this.lhs);
-            var rhsRule = this.generationRules.get(this.rhs);
+            var lhsRule = this.generationRules[this.lhs.id()];
+            var rhsRule = this.generationRules[this.rhs.id()];
 
             this.destinationRegister = this.allocator.allocate();
             instructions.add(new BinaryInstruction(this.op, this.destinationRegister, lhsRule.result(), rhsRule.result()));
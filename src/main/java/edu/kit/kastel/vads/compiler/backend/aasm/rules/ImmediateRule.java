@@ -10,15 +10,14 @@ import edu.kit.kastel.vads.compiler.ir.node.Node;
 import org.jspecify.annotations.Nullable;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
 public class ImmediateRule implements Pattern {
     @Override
-    public Optional<List<Node>> apply(Node node, Map<Node, Gen> patterns, AasmRegisterAllocator allocator) {
+    public Optional<List<Node>> apply(Node node, @Nullable Gen[] patterns, AasmRegisterAllocator allocator) {
         if (node instanceof ConstIntNode imm) {
-            patterns.put(imm, new ImmediateCodeGen(imm.value(), patterns, allocator));
+            patterns[imm.id()] = new ImmediateCodeGen(imm.value(), patterns, allocator);
             return Optional.of(List.of(imm));
         }
 
@@ -27,11 +26,11 @@ public class ImmediateRule implements Pattern {
 
     public static class ImmediateCodeGen implements Gen {
         private final int value;
-        private final Map<Node, Gen> generationRules;
+        private final @Nullable Gen[] generationRules;
         private final AasmRegisterAllocator allocator;
         private @Nullable AbstractRegister destinationRegister;
 
-        private ImmediateCodeGen(int value, Map<Node, Gen> generationRules, AasmRegisterAllocator allocator) {
+        private ImmediateCodeGen(int value, @Nullable Gen[] generationRules, AasmRegisterAllocator allocator) {
             this.value = value;
             this.generationRules = generationRules;
             this.allocator = allocator;
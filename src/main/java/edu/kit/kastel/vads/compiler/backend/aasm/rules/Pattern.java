@@ -4,9 +4,9 @@ import edu.kit.kastel.vads.compiler.backend.aasm.AasmRegisterAllocator;
 import edu.kit.kastel.vads.compiler.backend.aasm.AbstractRegister;
 import edu.kit.kastel.vads.compiler.backend.aasm.instructions.AbstractInstruction;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
+import org.jspecify.annotations.Nullable;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 public interface Pattern {
@@ -15,11 +15,11 @@ public interface Pattern {
      * Check whether this pattern can be applied to the subtree rooted at node.
      *
      * @param node      the node at which to apply this pattern
-     * @param patterns  a map from each node to its @ref Gen that can generate its result
+     * @param patterns  the @ref Gen that can generate the result of each node, indexed by the id of the node
      * @param allocator a class which can be used to get unique temporary registers
      * @return a list of all nodes covered by this pattern or an empty optional if it can't be applied
      */
-    Optional<List<Node>> apply(Node node, Map<Node, Gen> patterns, AasmRegisterAllocator allocator);
+    Optional<List<Node>> apply(Node node, @Nullable Gen[] patterns, AasmRegisterAllocator allocator);
 
     interface Gen {
         /**
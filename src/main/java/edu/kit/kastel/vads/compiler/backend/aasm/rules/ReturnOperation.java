@@ -7,19 +7,19 @@ import edu.kit.kastel.vads.compiler.backend.aasm.instructions.MoveInstruction;
 import edu.kit.kastel.vads.compiler.backend.aasm.instructions.ReturnInstruction;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
 import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
+import org.jspecify.annotations.Nullable;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import static edu.kit.kastel.vads.compiler.ir.util.NodeSupport.predecessorSkipProj;
 
 public class ReturnOperation implements Pattern {
     @Override
-    public Optional<List<Node>> apply(Node node, Map<Node, Gen> patterns, AasmRegisterAllocator allocator) {
+    public Optional<List<Node>> apply(Node node, @Nullable Gen[] patterns, AasmRegisterAllocator allocator) {
         if (node instanceof ReturnNode ret) {
             Node src = predecessorSkipProj(ret, ReturnNode.RESULT);
-            patterns.put(ret, new ReturnCodeGen(src, patterns));
+            patterns[ret.id()] = new ReturnCodeGen(src, patterns);
             return Optional.of(List.of(ret));
         }
 
@@ -28,9 +28,9 @@ public class ReturnOperation implements Pattern {
 
     public static class ReturnCodeGen implements Gen {
         private final Node src;
-        private final Map<Node, Gen> generationRules;
+        private final @Nullable Gen[] generationRules;
 
-        private ReturnCodeGen(Node src, Map<Node, Gen> generationRules) {
+        private ReturnCodeGen(Node src, @Nullable Gen[] generationRules) {
             this.src = src;
             this.generationRules = generationRules;
         }
@@ -42,7 +42,7 @@ public class ReturnOperation implements Pattern {
 
         @Override
         public List<AbstractInstruction> code() {
-            return List.of(new MoveInstruction(AbstractRegister.ret(), generationRules.get(src).result()), new ReturnInstruction());
+            return List.of(new MoveInstruction(AbstractRegister.ret(), generationRules[src.id()].result()), new ReturnInstruction());
         }
     }
 }
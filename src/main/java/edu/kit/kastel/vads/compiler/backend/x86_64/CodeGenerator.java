@@ -1,6 +1,7 @@
 package edu.kit.kastel.vads.compiler.backend.x86_64;
 
 import edu.kit.kastel.vads.compiler.Constants;
+import edu.kit.kastel.vads.compiler.PhaseStatistics;
 import edu.kit.kastel.vads.compiler.backend.aasm.AbstractImmediate;
 import edu.kit.kastel.vads.compiler.backend.aasm.AbstractRegister;
 import edu.kit.kastel.vads.compiler.backend.aasm.instructions.*;
@@ -8,26 +9,89 @@ import edu.kit.kastel.vads.compiler.backend.optimization.Optimization;
 import edu.kit.kastel.vads.compiler.backend.optimization.ValuePropagation;
 import edu.kit.kastel.vads.compiler.backend.x86_64.analysis.FactDatabase;
 import edu.kit.kastel.vads.compiler.backend.x86_64.analysis.LivenessAnalysis;
+import edu.kit.kastel.vads.compiler.backend.x86_64.emit.AssemblyEmitter;
+import edu.kit.kastel.vads.compiler.backend.x86_64.emit.Emitter;
+import edu.kit.kastel.vads.compiler.backend.x86_64.emit.MachineCodeEmitter;
 import edu.kit.kastel.vads.compiler.backend.x86_64.regalloc.*;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
 
 public class CodeGenerator {
 
     private static final List<Optimization> OPTIMIZATIONS = List.of(new ValuePropagation());
 
+    private final PhaseStatistics statistics;
+
+    public CodeGenerator() {
+        this(PhaseStatistics.DISABLED);
+    }
+
+    /// Creates a code generator that records its phases in `statistics`.
+    public CodeGenerator(PhaseStatistics statistics) {
+        this.statistics = statistics;
+    }
+
     public String generateCode(List<IrGraph> program) {
-        var aasmGenerator = new edu.kit.kastel.vads.compiler.backend.aasm.CodeGenerator();
-        var aasm = aasmGenerator.generateCode(program);
-
-        boolean changes;
-        do {
-            changes = false;
-            for (var i : OPTIMIZATIONS) {
-                changes |= i.optimize(aasm);
-            }
-        } while (changes);
+        AssemblyEmitter emitter = new AssemblyEmitter();
+        emitter.prologue();
+        for (ForkJoinTask<AssemblyEmitter> function : generateFunctions(program, AssemblyEmitter::new)) {
+            emitter.append(function.join());
+        }
+        return emitter.assembly();
+    }
+
+    /// Writes the assembly to `output` function by function, each one as soon as it and all before it are generated.
+    public void generateCode(List<IrGraph> program, Appendable output) throws IOException {
+        AssemblyEmitter prologue = new AssemblyEmitter();
+        prologue.prologue();
+        output.append(prologue.assembly());
+        for (ForkJoinTask<AssemblyEmitter> function : generateFunctions(program, AssemblyEmitter::new)) {
+            output.append(function.join().assembly());
+        }
+    }
+
+    /// Generates machine code instead of assembly.
+    /// The result starts with the program entry point and does not depend on the address it is loaded at.
+    public byte[] generateMachineCode(List<IrGraph> program) {
+        MachineCodeEmitter emitter = new MachineCodeEmitter();
+        emitter.prologue();
+        for (ForkJoinTask<MachineCodeEmitter> function : generateFunctions(program, MachineCodeEmitter::new)) {
+            emitter.append(function.join());
+        }
+        return emitter.code();
+    }
+
+    /// Starts generating the code of all functions independently of each other, in parallel.
+    ///
+    /// @return one task per function, in the order of `program`
+    private <E extends Emitter> List<ForkJoinTask<E>> generateFunctions(List<IrGraph> program, Supplier<E> emitters) {
+        List<ForkJoinTask<E>> tasks = new ArrayList<>(program.size());
+        for (IrGraph graph : program) {
+            tasks.add(ForkJoinTask.adapt(() -> generateFunction(graph, emitters.get())).fork());
+        }
+        return tasks;
+    }
+
+    private <E extends Emitter> E generateFunction(IrGraph graph, E emitter) {
+        var aasm = this.statistics.measure("aasm code generation",
+                () -> new edu.kit.kastel.vads.compiler.backend.aasm.CodeGenerator().generateCode(graph),
+                List::size, "instructions");
+
+        this.statistics.measure("optimizations", () -> {
+            boolean changes;
+            do {
+                changes = false;
+                for (var i : OPTIMIZATIONS) {
+                    changes |= i.optimize(aasm);
+                }
+            } while (changes);
+            return aasm;
+        }, List::size, "instructions");
 
         if (Constants.DEBUG) {
             System.out.println("Optimized AASM");
@@ -37,191 +101,176 @@ public class CodeGenerator {
             System.out.println("===");
         }
 
-        FactDatabase database = new FactDatabase(aasm.size());
-        LivenessAnalysis liveness = new LivenessAnalysis(database);
-        liveness.analyse(aasm);
-
-        InterferenceGraph interferenceGraph = new InterferenceGraphGenerator().generateGraph(aasm, database);
-        GraphColoringRegisterAllocator allocator = new GraphColoringRegisterAllocator(aasm, interferenceGraph);
-
-        StringBuilder builder = new StringBuilder();
-        builder.append("""
-                               .global main
-                               .global _main
-                               .text
-                               
-                               main:
-                               call _main
-                               
-                               # move the return value into the first argument for the syscall
-                               movq %rax, %rdi
-                               # move the exit syscall number into rax
-                               movq $0x3C, %rax
-                               syscall
-                               
-                               _main:
-                                 # start of generated assembly
-                               
-                               """);
-
-        for (var i : aasm) {
-            emitCode(builder, i, allocator);
-        }
-
-        return builder.toString();
+        FactDatabase database = this.statistics.measure("liveness analysis", () -> {
+            FactDatabase facts = new FactDatabase(aasm.size());
+            new LivenessAnalysis(facts).analyse(aasm);
+            return facts;
+        }, CodeGenerator::liveInFacts, "facts");
+
+        InterferenceGraph interferenceGraph = this.statistics.measure("interference graph",
+                () -> new InterferenceGraphGenerator().generateGraph(aasm, database),
+                interference -> interference.edgeSet().size(), "edges");
+        GraphColoringRegisterAllocator allocator = this.statistics.measure("register allocation",
+                () -> new GraphColoringRegisterAllocator(aasm, interferenceGraph));
+
+        return this.statistics.measure("emission", () -> {
+            emitter.function(graph.name());
+            for (var i : aasm) {
+                emitCode(emitter, i, allocator);
+            }
+            return emitter;
+        }, Emitter::size, "bytes");
     }
 
-    private static String mapOp(BinaryInstruction.Op op) {
-        return switch (op) {
-            case BinaryInstruction.Op.ADD -> "addl";
-            case BinaryInstruction.Op.DIV -> "idivl";
-            case BinaryInstruction.Op.MOD -> "idivl";
-            case BinaryInstruction.Op.MUL -> "mull";
-            case BinaryInstruction.Op.SUB -> "subl";
-        };
+    private static long liveInFacts(FactDatabase database) {
+        long facts = 0;
+        for (int line = 0; line < database.size(); line++) {
+            facts += database.getLiveInAt(line).size();
+        }
+        return facts;
     }
 
-    private void emitCode(StringBuilder b, AbstractInstruction instruction, RegisterAllocator allocator) {
+    private void emitCode(Emitter e, AbstractInstruction instruction, RegisterAllocator allocator) {
         switch (instruction) {
             // binary instruction with special registers (mul, div, mod)
             case BinaryInstruction(BinaryInstruction.Op op, var destIn, AbstractRegister lhsIn, AbstractRegister rhsIn) when
                     op == BinaryInstruction.Op.MUL || op == BinaryInstruction.Op.DIV || op == BinaryInstruction.Op.MOD -> {
 
-                ActualRegister lhs = unspill(allocator.registerOf(lhsIn), b, 0, true);
-                ActualRegister rhs = unspill(allocator.registerOf(rhsIn), b, 1, true);
-                ActualRegister dest = unspill(allocator.registerOf(destIn), b, 2, false);
+                ActualRegister lhs = unspill(allocator.registerOf(lhsIn), e, 0, true);
+                ActualRegister rhs = unspill(allocator.registerOf(rhsIn), e, 1, true);
+                ActualRegister dest = unspill(allocator.registerOf(destIn), e, 2, false);
 
                 if (!lhs.equals(ActualRegister.eax())) {
-                    b.append("movl ").append(lhs).append(", %eax\n");
+                    e.move(lhs, ActualRegister.eax());
                 }
                 if (rhs.equals(ActualRegister.edx())) {
                     // rhs is in edx (will be overwritten by cltd): save it and write it back after
-                    b.append("movl %edx, ").append(ActualRegister.spare(1)).append("\n");
-                    b.append("cltd\n");
-                    b.append(mapOp(op)).append(" ").append(ActualRegister.spare(1)).append("\n");
-                    b.append("movl ").append(ActualRegister.spare(1)).append(", %edx\n");
+                    e.move(ActualRegister.edx(), ActualRegister.spare(1));
+                    e.signExtend();
+                    e.multiplyOrDivide(op, ActualRegister.spare(1));
+                    e.move(ActualRegister.spare(1), ActualRegister.edx());
                 } else {
-                    b.append("cltd\n");
-                    b.append(mapOp(op)).append(" ").append(rhs).append("\n");
+                    e.signExtend();
+                    e.multiplyOrDivide(op, rhs);
                 }
 
                 if ((op == BinaryInstruction.Op.MUL || op == BinaryInstruction.Op.DIV) && !dest.equals(ActualRegister.eax())) {
                     // mul places lower bits of result in eax, div has quotient in eax
-                    b.append("movl %eax, ").append(dest).append("\n");
+                    e.move(ActualRegister.eax(), dest);
                 } else if (op == BinaryInstruction.Op.MOD && !dest.equals(ActualRegister.edx())) {
                     // div has remainder in edx
-                    b.append("movl %edx, ").append(dest).append("\n");
+                    e.move(ActualRegister.edx(), dest);
                 }
 
-                respill(allocator.registerOf(lhsIn), b, 0);
-                respill(allocator.registerOf(rhsIn), b, 1);
-                respill(allocator.registerOf(destIn), b, 2);
+                respill(allocator.registerOf(lhsIn), e, 0);
+                respill(allocator.registerOf(rhsIn), e, 1);
+                respill(allocator.registerOf(destIn), e, 2);
             }
             // binary instruction with lhs and rhs from a register
             case BinaryInstruction(BinaryInstruction.Op op, var destIn, AbstractRegister lhsIn, AbstractRegister rhsIn) when
                     op == BinaryInstruction.Op.ADD || op == BinaryInstruction.Op.SUB -> {
 
-                ActualRegister x = unspill(allocator.registerOf(lhsIn), b, 0, true);
-                ActualRegister y = unspill(allocator.registerOf(rhsIn), b, 1, true);
-                ActualRegister d = unspill(allocator.registerOf(destIn), b, 2, false);
+                ActualRegister x = unspill(allocator.registerOf(lhsIn), e, 0, true);
+                ActualRegister y = unspill(allocator.registerOf(rhsIn), e, 1, true);
+                ActualRegister d = unspill(allocator.registerOf(destIn), e, 2, false);
 
                 if (d.equals(x) && d.equals(y)) {
                     // d <- d x d
-                    b.append(mapOp(op)).append(" ").append(d).append(", ").append(d).append("\n");
+                    e.arithmetic(op, d, d);
                 } else if (d.equals(x)) {
                     // d <- d x %
-                    b.append(mapOp(op)).append(" ").append(y).append(", ").append(d).append("\n");
+                    e.arithmetic(op, y, d);
                 } else if (d.equals(y) && op == BinaryInstruction.Op.SUB) {
                     // d <- % x d
 
                     // for subtraction: 'sub src dst' <==> dst := dst - src
                     // if dst == rhs, we have to first save rhs -> spare
-                    b.append("movl ").append(d).append(", ").append(ActualRegister.spare(1)).append("\n");
-                    b.append("movl ").append(x).append(", ").append(d).append("\n");
-                    b.append(mapOp(op)).append(" ").append(ActualRegister.spare(1)).append(", ").append(d).append("\n");
+                    e.move(d, ActualRegister.spare(1));
+                    e.move(x, d);
+                    e.arithmetic(op, ActualRegister.spare(1), d);
                 } else if (d.equals(y) && op == BinaryInstruction.Op.ADD) {
                     // d <- % + d
-                    b.append(mapOp(op)).append(" ").append(x).append(", ").append(d).append("\n");
+                    e.arithmetic(op, x, d);
                 } else {
-                    b.append("movl ").append(x).append(", ").append(d).append("\n");
-                    b.append(mapOp(op)).append(" ").append(y).append(", ").append(d).append("\n");
+                    e.move(x, d);
+                    e.arithmetic(op, y, d);
                 }
 
-                respill(allocator.registerOf(lhsIn), b, 0);
-                respill(allocator.registerOf(rhsIn), b, 1);
-                respill(allocator.registerOf(destIn), b, 2);
+                respill(allocator.registerOf(lhsIn), e, 0);
+                respill(allocator.registerOf(rhsIn), e, 1);
+                respill(allocator.registerOf(destIn), e, 2);
             } // binary instruction with lhs from a register
             case BinaryInstruction(BinaryInstruction.Op op, var destIn, AbstractRegister lhsIn, AbstractImmediate rhs) when
                     op == BinaryInstruction.Op.ADD || op == BinaryInstruction.Op.SUB -> {
-                ActualRegister x = unspill(allocator.registerOf(lhsIn), b, 0, true);
-                ActualRegister d = unspill(allocator.registerOf(destIn), b, 1, false);
+                ActualRegister x = unspill(allocator.registerOf(lhsIn), e, 0, true);
+                ActualRegister d = unspill(allocator.registerOf(destIn), e, 1, false);
 
                 if (d.equals(x)) {
                     // for subtraction: 'sub src dst' <==> dst := dst - src
-                    b.append(mapOp(op)).append(" $").append(rhs.value()).append(", ").append(d).append("\n");
+                    e.arithmeticImmediate(op, rhs.value(), d);
                 } else {
-                    b.append("movl ").append(x).append(", ").append(d).append("\n");
-                    b.append(mapOp(op)).append(" $").append(rhs.value()).append(", ").append(d).append("\n");
+                    e.move(x, d);
+                    e.arithmeticImmediate(op, rhs.value(), d);
                 }
 
-                respill(allocator.registerOf(lhsIn), b, 0);
-                respill(allocator.registerOf(destIn), b, 1);
+                respill(allocator.registerOf(lhsIn), e, 0);
+                respill(allocator.registerOf(destIn), e, 1);
             }
             // binary instruction with rhs from a register
             case BinaryInstruction(BinaryInstruction.Op op, var destIn, AbstractImmediate lhs, AbstractRegister rhsIn) when
                     op == BinaryInstruction.Op.ADD || op == BinaryInstruction.Op.SUB -> {
-                ActualRegister y = unspill(allocator.registerOf(rhsIn), b, 0, true);
-                ActualRegister d = unspill(allocator.registerOf(destIn), b, 1, false);
+                ActualRegister y = unspill(allocator.registerOf(rhsIn), e, 0, true);
+                ActualRegister d = unspill(allocator.registerOf(destIn), e, 1, false);
 
                 if (d.equals(y) && op == BinaryInstruction.Op.SUB) {
                     // for subtraction: 'sub src dst' <==> dst := dst - src
                     // if dst == rhs, we have to first save rhs -> spare
-                    b.append("movl ").append(d).append(", ").append(ActualRegister.spare(2)).append("\n");
-                    b.append("movl $").append(lhs).append(", ").append(d).append("\n");
-                    b.append(mapOp(op)).append(" ").append(ActualRegister.spare(2)).append(", ").append(d).append("\n");
+                    e.move(d, ActualRegister.spare(2));
+                    e.moveImmediate(lhs.value(), d);
+                    e.arithmetic(op, ActualRegister.spare(2), d);
                 } else {
-                    b.append("movl $").append(lhs).append(", ").append(d).append("\n");
-                    b.append(mapOp(op)).append(" ").append(y).append(", ").append(d).append("\n");
+                    e.moveImmediate(lhs.value(), d);
+                    e.arithmetic(op, y, d);
                 }
 
-                respill(allocator.registerOf(rhsIn), b, 0);
-                respill(allocator.registerOf(destIn), b, 1);
+                respill(allocator.registerOf(rhsIn), e, 0);
+                respill(allocator.registerOf(destIn), e, 1);
             }
             // binary instruction with two immediates
             case BinaryInstruction(BinaryInstruction.Op op, var destIn, AbstractImmediate lhs, AbstractImmediate rhs) when
                     op == BinaryInstruction.Op.ADD || op == BinaryInstruction.Op.SUB -> {
-                ActualRegister dest = unspill(allocator.registerOf(destIn), b, 0, false);
+                ActualRegister dest = unspill(allocator.registerOf(destIn), e, 0, false);
 
                 // for subtraction: 'sub src dst' <==> dst := dst - src
-                b.append("movl $").append(lhs.value()).append(", ").append(dest).append("\n");
-                b.append(mapOp(op)).append(" $").append(rhs.value()).append(", ").append(dest).append("\n");
+                e.moveImmediate(lhs.value(), dest);
+                e.arithmeticImmediate(op, rhs.value(), dest);
 
-                respill(allocator.registerOf(destIn), b, 0);
+                respill(allocator.registerOf(destIn), e, 0);
             }
             case MoveInstruction(var destIn, AbstractRegister srcIn) -> {
-                ActualRegister src = unspill(allocator.registerOf(srcIn), b, 0, false);
-                ActualRegister dest = unspill(allocator.registerOf(destIn), b, 1, false);
+                ActualRegister src = unspill(allocator.registerOf(srcIn), e, 0, false);
+                ActualRegister dest = unspill(allocator.registerOf(destIn), e, 1, false);
 
-                b.append("movl ").append(src).append(", ").append(dest).append("\n");
+                e.move(src, dest);
 
-                respill(allocator.registerOf(srcIn), b, 0);
-                respill(allocator.registerOf(destIn), b, 1);
+                respill(allocator.registerOf(srcIn), e, 0);
+                respill(allocator.registerOf(destIn), e, 1);
             }
             case MoveInstruction(var destIn, AbstractImmediate imm) -> {
-                ActualRegister dest = unspill(allocator.registerOf(destIn), b, 0, false);
+                ActualRegister dest = unspill(allocator.registerOf(destIn), e, 0, false);
 
-                b.append("movl $").append(imm.value()).append(", ").append(dest).append("\n");
+                e.moveImmediate(imm.value(), dest);
 
-                respill(allocator.registerOf(destIn), b, 0);
+                respill(allocator.registerOf(destIn), e, 0);
             }
             case NopInstruction _ -> {
             }
-            case ReturnInstruction _ -> b.append("ret\n");
+            case ReturnInstruction _ -> e.ret();
             default -> throw new UnsupportedOperationException("No instructions for " + instruction + " available!");
         }
     }
 
-    private ActualRegister unspill(ActualRegister reg, StringBuilder b, int index, boolean load) {
+    private ActualRegister unspill(ActualRegister reg, Emitter e, int index, boolean load) {
         int address = reg.spillIndex();
         if (address < 0) {
             return reg;
@@ -229,12 +278,12 @@ public class CodeGenerator {
         address += 1;
 
         ActualRegister spillRegister = ActualRegister.spare(index);
-        if (load) b.append("movl ").append(-4 * address).append("(%rsp), ").append(spillRegister).append("\n");
+        if (load) e.load(-4 * address, spillRegister);
 
         return spillRegister;
     }
 
-    private void respill(ActualRegister reg, StringBuilder b, int index) {
+    private void respill(ActualRegister reg, Emitter e, int index) {
         int address = reg.spillIndex();
         if (address < 0) {
             return;
@@ -242,6 +291,6 @@ public class CodeGenerator {
         address += 1;
 
         ActualRegister spillRegister = ActualRegister.spare(index);
-        b.append("movl ").append(spillRegister).append(", ").append(-4 * address).append("(%rsp)\n");
+        e.store(spillRegister, -4 * address);
     }
 }
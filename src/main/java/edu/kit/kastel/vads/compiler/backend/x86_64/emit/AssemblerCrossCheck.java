@@ -0,0 +1,82 @@
+package edu.kit.kastel.vads.compiler.backend.x86_64.emit;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/// Differential check of the [MachineCodeEmitter] against the GNU assembler.
+/// The assembly is assembled into an object file by gcc, and its `.text` section
+/// is compared to the machine code produced in-process.
+public final class AssemblerCrossCheck {
+
+    private AssemblerCrossCheck() {
+
+    }
+
+    /// {@return a description of the first difference, or an empty optional if both agree}
+    public static Optional<String> compare(String assembly, byte[] code) throws IOException, InterruptedException {
+        Path object = Files.createTempFile("l1-check", ".o");
+        try {
+            Process assembler = new ProcessBuilder("gcc", "-c", "-o", object.toString(), "-x", "assembler", "-")
+                    .redirectErrorStream(true).start();
+            try (OutputStream stdin = assembler.getOutputStream()) {
+                stdin.write(assembly.getBytes(StandardCharsets.UTF_8));
+            }
+            String gccOutput = new String(assembler.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            if (assembler.waitFor() != 0) {
+                return Optional.of("gcc failed to assemble: " + gccOutput);
+            }
+            return compareBytes(textSection(Files.readAllBytes(object)), code);
+        } finally {
+            Files.deleteIfExists(object);
+        }
+    }
+
+    private static Optional<String> compareBytes(byte[] expected, byte[] actual) {
+        int length = Math.min(expected.length, actual.length);
+        for (int i = 0; i < length; i++) {
+            if (i >= MachineCodeEmitter.CALL_DISPLACEMENT_OFFSET &&
+                i < MachineCodeEmitter.CALL_DISPLACEMENT_OFFSET + MachineCodeEmitter.CALL_DISPLACEMENT_LENGTH) {
+                // relocated in the object file
+                continue;
+            }
+            if (expected[i] != actual[i]) {
+                return Optional.of(String.format("byte %d: gcc has 0x%02x, but got 0x%02x", i, expected[i], actual[i]));
+            }
+        }
+        if (expected.length != actual.length) {
+            return Optional.of("gcc produced " + expected.length + " bytes, but got " + actual.length);
+        }
+        return Optional.empty();
+    }
+
+    private static byte[] textSection(byte[] object) throws IOException {
+        ByteBuffer elf = ByteBuffer.wrap(object).order(ByteOrder.LITTLE_ENDIAN);
+        int sectionHeaders = (int) elf.getLong(0x28);
+        int sectionHeaderSize = Short.toUnsignedInt(elf.getShort(0x3A));
+        int sectionCount = Short.toUnsignedInt(elf.getShort(0x3C));
+        int stringSection = Short.toUnsignedInt(elf.getShort(0x3E));
+        int names = (int) elf.getLong(sectionHeaders + stringSection * sectionHeaderSize + 24);
+        for (int i = 0; i < sectionCount; i++) {
+            int header = sectionHeaders + i * sectionHeaderSize;
+            int nameStart = names + elf.getInt(header);
+            int nameEnd = nameStart;
+            while (object[nameEnd] != 0) {
+                nameEnd++;
+            }
+            if (new String(object, nameStart, nameEnd - nameStart, StandardCharsets.US_ASCII).equals(".text")) {
+                int offset = (int) elf.getLong(header + 24);
+                int size = (int) elf.getLong(header + 32);
+                byte[] text = new byte[size];
+                System.arraycopy(object, offset, text, 0, size);
+                return text;
+            }
+        }
+        throw new IOException("object file has no .text section");
+    }
+}
@@ -0,0 +1,103 @@
+package edu.kit.kastel.vads.compiler.backend.x86_64.emit;
+
+import edu.kit.kastel.vads.compiler.backend.aasm.instructions.BinaryInstruction;
+import edu.kit.kastel.vads.compiler.backend.x86_64.regalloc.ActualRegister;
+
+/// Produces textual GNU assembly that can be assembled by gcc.
+public class AssemblyEmitter implements Emitter {
+    private final StringBuilder builder = new StringBuilder();
+
+    @Override
+    public void prologue() {
+        this.builder.append("""
+                                    .global main
+                                    .global _main
+                                    .text
+                                    
+                                    main:
+                                    call _main
+                                    
+                                    # move the return value into the first argument for the syscall
+                                    movq %rax, %rdi
+                                    # move the exit syscall number into rax
+                                    movq $0x3C, %rax
+                                    syscall
+                                    
+                                    """);
+    }
+
+    @Override
+    public void function(String name) {
+        this.builder.append("_").append(name).append(":\n  # start of generated assembly\n\n");
+    }
+
+    @Override
+    public void move(ActualRegister src, ActualRegister dest) {
+        this.builder.append("movl ").append(src).append(", ").append(dest).append("\n");
+    }
+
+    @Override
+    public void moveImmediate(int value, ActualRegister dest) {
+        this.builder.append("movl $").append(value).append(", ").append(dest).append("\n");
+    }
+
+    @Override
+    public void arithmetic(BinaryInstruction.Op op, ActualRegister src, ActualRegister dest) {
+        this.builder.append(mapOp(op)).append(" ").append(src).append(", ").append(dest).append("\n");
+    }
+
+    @Override
+    public void arithmeticImmediate(BinaryInstruction.Op op, int value, ActualRegister dest) {
+        this.builder.append(mapOp(op)).append(" $").append(value).append(", ").append(dest).append("\n");
+    }
+
+    @Override
+    public void signExtend() {
+        this.builder.append("cltd\n");
+    }
+
+    @Override
+    public void multiplyOrDivide(BinaryInstruction.Op op, ActualRegister operand) {
+        this.builder.append(mapOp(op)).append(" ").append(operand).append("\n");
+    }
+
+    @Override
+    public void load(int offset, ActualRegister dest) {
+        this.builder.append("movl ").append(offset).append("(%rsp), ").append(dest).append("\n");
+    }
+
+    @Override
+    public void store(ActualRegister src, int offset) {
+        this.builder.append("movl ").append(src).append(", ").append(offset).append("(%rsp)\n");
+    }
+
+    @Override
+    public void ret() {
+        this.builder.append("ret\n");
+    }
+
+    @Override
+    public int size() {
+        // the assembly is plain ASCII
+        return this.builder.length();
+    }
+
+    /// Appends everything `other` emitted.
+    public void append(AssemblyEmitter other) {
+        this.builder.append(other.builder);
+    }
+
+    public String assembly() {
+        return this.builder.toString();
+    }
+
+    private static String mapOp(BinaryInstruction.Op op) {
+        return switch (op) {
+            case BinaryInstruction.Op.ADD -> "addl";
+            case BinaryInstruction.Op.DIV -> "idivl";
+            case BinaryInstruction.Op.MOD -> "idivl";
+            case BinaryInstruction.Op.MUL -> "mull";
+            case BinaryInstruction.Op.SUB -> "subl";
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package edu.kit.kastel.vads.compiler.backend.x86_64.emit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+/// Writes a static ELF64 executable for Linux x86-64.
+/// The whole file is mapped as a single read-only, executable segment,
+/// the code follows the headers directly and its first byte is the entry point (`_start`).
+public final class ElfWriter {
+    private static final long BASE_ADDRESS = 0x400000;
+    private static final int ELF_HEADER_SIZE = 64;
+    private static final int PROGRAM_HEADER_SIZE = 56;
+    private static final int CODE_OFFSET = ELF_HEADER_SIZE + PROGRAM_HEADER_SIZE;
+
+    private ElfWriter() {
+
+    }
+
+    public static void writeExecutable(Path output, byte[] code) throws IOException {
+        Files.write(output, toElf(code));
+        Files.setPosixFilePermissions(output, PosixFilePermissions.fromString("rwxr-xr-x"));
+    }
+
+    static byte[] toElf(byte[] code) {
+        ByteBuffer buffer = ByteBuffer.allocate(CODE_OFFSET + code.length).order(ByteOrder.LITTLE_ENDIAN);
+        long fileSize = buffer.capacity();
+
+        // e_ident: magic, 64 bit, little endian, version 1, System V ABI
+        buffer.put(new byte[] {0x7F, 'E', 'L', 'F', 2, 1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+        buffer.putShort((short) 2); // e_type: executable
+        buffer.putShort((short) 0x3E); // e_machine: x86-64
+        buffer.putInt(1); // e_version
+        buffer.putLong(BASE_ADDRESS + CODE_OFFSET); // e_entry
+        buffer.putLong(ELF_HEADER_SIZE); // e_phoff
+        buffer.putLong(0); // e_shoff: no section headers
+        buffer.putInt(0); // e_flags
+        buffer.putShort((short) ELF_HEADER_SIZE); // e_ehsize
+        buffer.putShort((short) PROGRAM_HEADER_SIZE); // e_phentsize
+        buffer.putShort((short) 1); // e_phnum
+        buffer.putShort((short) 64); // e_shentsize
+        buffer.putShort((short) 0); // e_shnum
+        buffer.putShort((short) 0); // e_shstrndx
+
+        buffer.putInt(1); // p_type: PT_LOAD
+        buffer.putInt(0x5); // p_flags: R + X
+        buffer.putLong(0); // p_offset
+        buffer.putLong(BASE_ADDRESS); // p_vaddr
+        buffer.putLong(BASE_ADDRESS); // p_paddr
+        buffer.putLong(fileSize); // p_filesz
+        buffer.putLong(fileSize); // p_memsz
+        buffer.putLong(0x1000); // p_align
+
+        buffer.put(code);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,45 @@
+package edu.kit.kastel.vads.compiler.backend.x86_64.emit;
+
+import edu.kit.kastel.vads.compiler.backend.aasm.instructions.BinaryInstruction;
+import edu.kit.kastel.vads.compiler.backend.x86_64.regalloc.ActualRegister;
+
+/// Receives the x86-64 instructions selected by the code generator.
+/// The operand order follows the AT&T syntax, i.e. the destination comes last.
+public interface Emitter {
+
+    /// Emits the program entry, which calls `_main` and exits with its result.
+    void prologue();
+
+    /// Emits the label of the function `name`. Its instructions follow.
+    void function(String name);
+
+    /// `movl src, dest`
+    void move(ActualRegister src, ActualRegister dest);
+
+    /// `movl $value, dest`
+    void moveImmediate(int value, ActualRegister dest);
+
+    /// `addl src, dest` or `subl src, dest`
+    void arithmetic(BinaryInstruction.Op op, ActualRegister src, ActualRegister dest);
+
+    /// `addl $value, dest` or `subl $value, dest`
+    void arithmeticImmediate(BinaryInstruction.Op op, int value, ActualRegister dest);
+
+    /// `cltd`
+    void signExtend();
+
+    /// `mull operand` for [BinaryInstruction.Op#MUL], `idivl operand` for [BinaryInstruction.Op#DIV] and [BinaryInstruction.Op#MOD]
+    void multiplyOrDivide(BinaryInstruction.Op op, ActualRegister operand);
+
+    /// `movl offset(%rsp), dest`
+    void load(int offset, ActualRegister dest);
+
+    /// `movl src, offset(%rsp)`
+    void store(ActualRegister src, int offset);
+
+    /// `ret`
+    void ret();
+
+    /// {@return the number of bytes emitted so far}
+    int size();
+}
@@ -0,0 +1,120 @@
+package edu.kit.kastel.vads.compiler.backend.x86_64.emit;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/// A gcc process that assembles and links the assembly written to its [#input()] into an executable.
+///
+/// The process is started before any assembly exists, so its startup overlaps with the compilation,
+/// and the assembly is streamed into it while it is generated.
+/// gcc's output is read on a separate thread, otherwise gcc could block on a full pipe
+/// while we block writing to its input.
+public final class GccAssembler {
+    private final @Nullable Process process;
+    private final @Nullable IOException startFailure;
+    private final Writer input;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final @Nullable Thread drain;
+    // set by whichever of closeInput and abort runs first, which may be on different threads
+    private boolean closed;
+
+    private GccAssembler(@Nullable Process process, @Nullable IOException startFailure) {
+        this.process = process;
+        this.startFailure = startFailure;
+        if (process == null) {
+            this.input = Writer.nullWriter();
+            this.drain = null;
+        } else {
+            this.input = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            this.drain = Thread.ofPlatform().daemon().name("gcc output").start(() -> drain(process.getInputStream()));
+        }
+    }
+
+    /// Starts gcc writing the executable to `output`.
+    /// If gcc can't be started, the failure is reported by [#finish(PrintStream)],
+    /// so errors in the program itself still take precedence.
+    public static GccAssembler start(Path output) {
+        try {
+            Process process = new ProcessBuilder("gcc", "-o", output.toAbsolutePath().toString(), "-x", "assembler", "-")
+                    .redirectErrorStream(true)
+                    .start();
+            return new GccAssembler(process, null);
+        } catch (IOException e) {
+            return new GccAssembler(null, e);
+        }
+    }
+
+    /// {@return the stdin of gcc}
+    public Writer input() {
+        return this.input;
+    }
+
+    /// Signals gcc that the assembly is complete.
+    public synchronized void closeInput() throws IOException {
+        this.closed = true;
+        this.input.close();
+    }
+
+    /// Lets gcc fail before it links anything, so the output file is left untouched.
+    /// Does nothing if the input is closed already.
+    /// gcc terminates on its own, this method does not wait for it.
+    public synchronized void abort() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try (Writer writer = this.input) {
+            writer.write("\n.error \"compilation aborted\"\n");
+        } catch (IOException _) {
+            // gcc is gone already
+        }
+    }
+
+    /// Waits for gcc to terminate and prints its output to `diagnostics` if it failed.
+    ///
+    /// @return `0` if gcc succeeded, `4` otherwise
+    public int finish(PrintStream diagnostics) {
+        if (this.process == null || this.drain == null) {
+            // only a process that failed to start is missing
+            Objects.requireNonNull(this.startFailure).printStackTrace(diagnostics);
+            return 4;
+        }
+        try {
+            closeInput();
+        } catch (IOException _) {
+            // gcc has terminated early, its exit code and output tell why
+        }
+        try {
+            int exitCode = this.process.waitFor();
+            this.drain.join();
+            if (exitCode != 0) {
+                diagnostics.println("Error during assembler phase:");
+                diagnostics.print(this.output.toString(StandardCharsets.UTF_8));
+                return 4;
+            }
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            e.printStackTrace(diagnostics);
+            return 4;
+        }
+    }
+
+    private void drain(InputStream gccOutput) {
+        try (gccOutput) {
+            gccOutput.transferTo(this.output);
+        } catch (IOException _) {
+            // gcc is gone, its exit code tells whether that is a problem
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package edu.kit.kastel.vads.compiler.backend.x86_64.emit;
+
+import edu.kit.kastel.vads.compiler.backend.aasm.instructions.BinaryInstruction;
+import edu.kit.kastel.vads.compiler.backend.x86_64.regalloc.ActualRegister;
+
+import java.io.ByteArrayOutputStream;
+
+/// Encodes the instructions directly into x86-64 machine code.
+/// Wherever there is a choice, the same encoding as the GNU assembler is picked,
+/// so the output can be compared byte by byte with what gcc produces for the [AssemblyEmitter] output.
+public class MachineCodeEmitter implements Emitter {
+    /// The offset and length of the `call _main` displacement in the prologue.
+    /// The GNU assembler leaves a relocation there, so it differs in object files.
+    public static final int CALL_DISPLACEMENT_OFFSET = 1;
+    public static final int CALL_DISPLACEMENT_LENGTH = 4;
+
+    private static final int REX = 0x40;
+    private static final int REX_W = 0x08;
+    private static final int REX_R = 0x04;
+    private static final int REX_B = 0x01;
+    private static final int RSP = 4;
+
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+    @Override
+    public void prologue() {
+        int callStart = this.code.size();
+        // call _main, _main starts right after the exit syscall
+        emitByte(0xE8);
+        emitInt(3 + 7 + 2);
+        assert this.code.size() - callStart == CALL_DISPLACEMENT_OFFSET + CALL_DISPLACEMENT_LENGTH;
+        // movq %rax, %rdi
+        emitBytes(REX | REX_W, 0x89, 0xC7);
+        // movq $0x3C, %rax
+        emitBytes(REX | REX_W, 0xC7, 0xC0);
+        emitInt(0x3C);
+        // syscall
+        emitBytes(0x0F, 0x05);
+    }
+
+    @Override
+    public void function(String name) {
+        // the prologue calls whatever comes right after it, there is no linker to place other functions
+        if (!name.equals("main")) {
+            throw new UnsupportedOperationException("only the main function can be encoded");
+        }
+    }
+
+    @Override
+    public void move(ActualRegister src, ActualRegister dest) {
+        registerToRegister(0x89, src, dest);
+    }
+
+    @Override
+    public void moveImmediate(int value, ActualRegister dest) {
+        int d = dest.encoding();
+        rex(0, d);
+        emitByte(0xB8 + (d & 7));
+        emitInt(value);
+    }
+
+    @Override
+    public void arithmetic(BinaryInstruction.Op op, ActualRegister src, ActualRegister dest) {
+        int opcode = switch (op) {
+            case ADD -> 0x01;
+            case SUB -> 0x29;
+            default -> throw new UnsupportedOperationException("no register form for " + op);
+        };
+        registerToRegister(opcode, src, dest);
+    }
+
+    @Override
+    public void arithmeticImmediate(BinaryInstruction.Op op, int value, ActualRegister dest) {
+        int extension = switch (op) {
+            case ADD -> 0;
+            case SUB -> 5;
+            default -> throw new UnsupportedOperationException("no immediate form for " + op);
+        };
+        int d = dest.encoding();
+        if (value == (byte) value) {
+            rex(0, d);
+            emitBytes(0x83, modRmRegister(extension, d), value & 0xFF);
+        } else if (d == 0) {
+            // short form for eax
+            emitByte(0x05 | (extension << 3));
+            emitInt(value);
+        } else {
+            rex(0, d);
+            emitBytes(0x81, modRmRegister(extension, d));
+            emitInt(value);
+        }
+    }
+
+    @Override
+    public void signExtend() {
+        emitByte(0x99);
+    }
+
+    @Override
+    public void multiplyOrDivide(BinaryInstruction.Op op, ActualRegister operand) {
+        int extension = switch (op) {
+            case MUL -> 4;
+            case DIV, MOD -> 7;
+            default -> throw new UnsupportedOperationException("not a multiplication or division " + op);
+        };
+        int r = operand.encoding();
+        rex(0, r);
+        emitBytes(0xF7, modRmRegister(extension, r));
+    }
+
+    @Override
+    public void load(int offset, ActualRegister dest) {
+        stackAccess(0x8B, dest, offset);
+    }
+
+    @Override
+    public void store(ActualRegister src, int offset) {
+        stackAccess(0x89, src, offset);
+    }
+
+    @Override
+    public void ret() {
+        emitByte(0xC3);
+    }
+
+    @Override
+    public int size() {
+        return this.code.size();
+    }
+
+    /// Appends everything `other` emitted. The code must not depend on its address.
+    public void append(MachineCodeEmitter other) {
+        this.code.writeBytes(other.code.toByteArray());
+    }
+
+    public byte[] code() {
+        return this.code.toByteArray();
+    }
+
+    private void registerToRegister(int opcode, ActualRegister reg, ActualRegister rm) {
+        int r = reg.encoding();
+        int m = rm.encoding();
+        rex(r, m);
+        emitBytes(opcode, modRmRegister(r, m));
+    }
+
+    private void stackAccess(int opcode, ActualRegister reg, int offset) {
+        int r = reg.encoding();
+        rex(r, 0);
+        emitByte(opcode);
+        // rsp as base always requires a SIB byte
+        if (offset == (byte) offset) {
+            emitBytes(0x40 | ((r & 7) << 3) | RSP, 0x24, offset & 0xFF);
+        } else {
+            emitBytes(0x80 | ((r & 7) << 3) | RSP, 0x24);
+            emitInt(offset);
+        }
+    }
+
+    private void rex(int reg, int rm) {
+        int rex = (reg >= 8 ? REX_R : 0) | (rm >= 8 ? REX_B : 0);
+        if (rex != 0) {
+            emitByte(REX | rex);
+        }
+    }
+
+    private static int modRmRegister(int reg, int rm) {
+        return 0xC0 | ((reg & 7) << 3) | (rm & 7);
+    }
+
+    private void emitBytes(int... bytes) {
+        for (int b : bytes) {
+            emitByte(b);
+        }
+    }
+
+    private void emitByte(int b) {
+        this.code.write(b);
+    }
+
+    private void emitInt(int value) {
+        emitByte(value);
+        emitByte(value >>> 8);
+        emitByte(value >>> 16);
+        emitByte(value >>> 24);
+    }
+}
@@ -7,6 +7,8 @@ public record ActualRegister(int id) implements Comparable<ActualRegister> {
     private static final List<String> REGISTERS =
             List.of("eax", "ebx", "ecx", "edx", "esi", "edi", /*"ebp", "esp",*/ "r8d", "r9d", "r10d",/* "r11d", "r12d", "r13d",*/ "r14d",
                     "r15d");
+    // the number used in ModRM/REX for each of the REGISTERS above
+    private static final List<Integer> ENCODINGS = List.of(0, 3, 1, 2, 6, 7, 8, 9, 10, 14, 15);
 
     public static ActualRegister eax() {
         return new ActualRegister(0);
@@ -29,6 +31,17 @@ public record ActualRegister(int id) implements Comparable<ActualRegister> {
         return id - REGISTERS.size();
     }
 
+    /// {@return the hardware register number used when encoding instructions}
+    public int encoding() {
+        if (id == -1) return 11;
+        if (id == -2) return 12;
+        if (id == -3) return 13;
+
+        if (id < 0 || id >= ENCODINGS.size()) throw new UnsupportedOperationException("Cannot encode register id: " + id);
+
+        return ENCODINGS.get(id());
+    }
+
     @Override
     public String toString() {
         if (id == -1) return "%r11d";
@@ -0,0 +1,158 @@
+package edu.kit.kastel.vads.compiler.batch;
+
+import edu.kit.kastel.vads.compiler.Main;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/// Compiles many files with a bounded number of workers.
+///
+/// The Java side of each compilation runs on one of the workers.
+/// Waiting for gcc is handed to a separate pool of the same size,
+/// so a worker can compile the next file while the previous one is still being assembled.
+///
+/// For every file, a line `exitCode<TAB>input<TAB>output` is printed, in the order of the jobs.
+/// The exit codes are the same as for single compilations.
+/// Diagnostics of each file are printed right before its line, followed by a summary at the end.
+public class BatchCompiler {
+    private final int workers;
+
+    public record Job(Path input, Path output) {
+    }
+
+    private record Result(Job job, int exitCode, ByteArrayOutputStream diagnostics) {
+    }
+
+    public BatchCompiler(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("at least one worker is required");
+        }
+        this.workers = workers;
+    }
+
+    /// Creates a batch compiler with as many workers as configured by the `batchWorkers` property
+    /// or the `BATCH_WORKERS` environment variable, and one worker per processor by default.
+    /// A value that is not a positive number is ignored.
+    public static BatchCompiler fromConfiguration() {
+        return new BatchCompiler(workers());
+    }
+
+    /// {@return the configured number of workers, one per processor if none or no positive number is configured}
+    static int workers() {
+        String workers = System.getProperty("batchWorkers", System.getenv("BATCH_WORKERS"));
+        if (workers == null) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        try {
+            int count = Integer.parseInt(workers.strip());
+            return count > 0 ? count : Runtime.getRuntime().availableProcessors();
+        } catch (NumberFormatException e) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    /// Reads a manifest with one job per line: the input path and the output path, separated by a tab.
+    /// If a line contains no tab, the paths are separated by whitespace instead.
+    /// Empty lines and lines starting with `#` are ignored.
+    public static List<Job> readManifest(BufferedReader reader) throws IOException {
+        List<Job> jobs = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] paths = line.contains("\t") ? line.split("\t") : line.trim().split("\\s+");
+            if (paths.length != 2) {
+                throw new IOException("line " + lineNumber + " of the manifest: expected one input file and one output file");
+            }
+            jobs.add(new Job(Path.of(paths[0]), Path.of(paths[1])));
+        }
+        return jobs;
+    }
+
+    /// Creates the jobs from alternating input and output paths.
+    public static List<Job> pairs(List<String> paths) {
+        if (paths.size() % 2 != 0) {
+            throw new IllegalArgumentException("expected pairs of input and output files");
+        }
+        List<Job> jobs = new ArrayList<>();
+        for (int i = 0; i < paths.size(); i += 2) {
+            jobs.add(new Job(Path.of(paths.get(i)), Path.of(paths.get(i + 1))));
+        }
+        return jobs;
+    }
+
+    /// Compiles all jobs.
+    ///
+    /// @return `0` if all files compiled successfully, `1` otherwise
+    public int compile(List<Job> jobs, PrintStream out, PrintStream diagnostics) {
+        long start = System.nanoTime();
+        List<CompletableFuture<Result>> results = new ArrayList<>(jobs.size());
+        // bounds the number of jobs in flight, from submitting the Java-side compile until gcc has finished,
+        // so the queued tasks and the assemblies waiting for gcc don't grow with the number of jobs
+        Semaphore inFlight = new Semaphore(2 * this.workers);
+        try (ExecutorService compilers = Executors.newFixedThreadPool(this.workers);
+             ExecutorService assemblers = Executors.newFixedThreadPool(this.workers)) {
+            for (Job job : jobs) {
+                inFlight.acquireUninterruptibly();
+                results.add(CompletableFuture.supplyAsync(() -> compile(job, assemblers), compilers)
+                        .thenCompose(Function.identity())
+                        .whenComplete((_, _) -> inFlight.release()));
+            }
+            Map<Integer, Integer> exitCodes = new TreeMap<>();
+            for (CompletableFuture<Result> future : results) {
+                Result result = future.join();
+                diagnostics.print(result.diagnostics().toString(StandardCharsets.UTF_8));
+                out.println(result.exitCode() + "\t" + result.job().input() + "\t" + result.job().output());
+                exitCodes.merge(result.exitCode(), 1, Integer::sum);
+            }
+            out.flush();
+            printSummary(diagnostics, jobs.size(), exitCodes, System.nanoTime() - start);
+            return exitCodes.keySet().stream().allMatch(code -> code == 0) ? 0 : 1;
+        }
+    }
+
+    private static CompletableFuture<Result> compile(Job job, ExecutorService assemblers) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream diagnostics = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        CompletableFuture<Integer> exitCode;
+        try {
+            exitCode = Main.compile(job.input(), job.output(), diagnostics, assemblers);
+        } catch (IOException | RuntimeException e) {
+            // the single-shot compiler would die with an uncaught exception here
+            e.printStackTrace(diagnostics);
+            exitCode = CompletableFuture.completedFuture(1);
+        }
+        return exitCode.exceptionally(e -> {
+            e.printStackTrace(diagnostics);
+            return 1;
+        }).thenApply(code -> new Result(job, code, buffer));
+    }
+
+    private static void printSummary(PrintStream diagnostics, int files, Map<Integer, Integer> exitCodes, long nanos) {
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT, "Compiled %d files in %.2f s: %d succeeded",
+                files, nanos / 1e9, exitCodes.getOrDefault(0, 0)));
+        for (Map.Entry<Integer, Integer> entry : exitCodes.entrySet()) {
+            if (entry.getKey() != 0) {
+                summary.append(", ").append(entry.getValue()).append(" failed with exit code ").append(entry.getKey());
+            }
+        }
+        diagnostics.println(summary);
+    }
+}
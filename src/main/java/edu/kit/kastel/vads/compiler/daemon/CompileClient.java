@@ -0,0 +1,55 @@
+package edu.kit.kastel.vads.compiler.daemon;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/// A thin client for [CompileServer].
+/// It only depends on the JDK, so it can be started with a minimal classpath.
+/// The exit code of the compilation on the server becomes the exit code of this process.
+/// If no server answers, e.g. because it crashed and left its socket behind,
+/// it exits with [#SERVER_UNAVAILABLE] instead, so the caller can compile without the server.
+public class CompileClient {
+    /// The exit code if the server can't be reached or doesn't answer, `EX_TEMPFAIL` of `sysexits.h`.
+    public static final int SERVER_UNAVAILABLE = 75;
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Invalid arguments: Expected the daemon socket, one input file and one output file");
+            System.exit(3);
+        }
+        Path socket = Path.of(args[0]);
+        // the server has its own working directory
+        String request = Path.of(args[1]).toAbsolutePath() + "\n" + Path.of(args[2]).toAbsolutePath() + "\n";
+        int exitCode = SERVER_UNAVAILABLE;
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            channel.write(StandardCharsets.UTF_8.encode(request));
+            channel.shutdownOutput();
+            InputStream response = Channels.newInputStream(channel);
+            exitCode = readExitCode(response);
+            response.transferTo(System.err);
+        } catch (IOException e) {
+            // once the exit code was read, only the diagnostics are incomplete
+            if (exitCode == SERVER_UNAVAILABLE) {
+                System.err.println("Compile server unavailable: " + e.getMessage());
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static int readExitCode(InputStream response) throws IOException {
+        int exitCode = 0;
+        int c;
+        while ((c = response.read()) != '\n') {
+            if (c < '0' || c > '9') {
+                throw new IOException("malformed response from compile server");
+            }
+            exitCode = exitCode * 10 + (c - '0');
+        }
+        return exitCode;
+    }
+}
@@ -0,0 +1,104 @@
+package edu.kit.kastel.vads.compiler.daemon;
+
+import edu.kit.kastel.vads.compiler.Main;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/// A long-running compiler process that keeps the JIT warm between compilations.
+///
+/// A request consists of two lines, the input path and the output path.
+/// On the socket, the response is the exit code [Main#compile] returned on its own line,
+/// followed by the diagnostics of that compilation until the connection is closed.
+/// On stdio, each response is a single line `exitCode<TAB>input<TAB>output` and diagnostics go to stderr.
+///
+/// Every request runs on its own virtual thread, so responses on stdio may arrive out of order.
+public class CompileServer {
+
+    public void serve(Path socket) throws IOException {
+        Files.deleteIfExists(socket);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                Files.deleteIfExists(socket);
+            } catch (IOException _) {
+                // nothing we can do anymore
+            }
+        }));
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            server.bind(UnixDomainSocketAddress.of(socket));
+            while (server.isOpen()) {
+                SocketChannel client = server.accept();
+                executor.submit(() -> handle(client));
+            }
+        }
+    }
+
+    public void serveStdio(InputStream in, PrintStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            String input;
+            while ((input = reader.readLine()) != null) {
+                String output = reader.readLine();
+                if (output == null) {
+                    out.println(3 + "\t" + input + "\t");
+                    break;
+                }
+                String finalOutput = output;
+                String finalInput = input;
+                executor.submit(() -> {
+                    ByteArrayOutputStream diagnostics = new ByteArrayOutputStream();
+                    int exitCode = compile(finalInput, finalOutput, diagnostics);
+                    synchronized (out) {
+                        System.err.print(diagnostics.toString(StandardCharsets.UTF_8));
+                        out.println(exitCode + "\t" + finalInput + "\t" + finalOutput);
+                        out.flush();
+                    }
+                });
+            }
+        }
+    }
+
+    private void handle(SocketChannel client) {
+        try (client) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+            String input = reader.readLine();
+            String output = reader.readLine();
+            ByteArrayOutputStream diagnostics = new ByteArrayOutputStream();
+            int exitCode;
+            if (input == null || output == null) {
+                diagnostics.writeBytes("Invalid request: Expected one input file and one output file\n".getBytes(StandardCharsets.UTF_8));
+                exitCode = 3;
+            } else {
+                exitCode = compile(input, output, diagnostics);
+            }
+            OutputStream response = Channels.newOutputStream(client);
+            response.write((exitCode + "\n").getBytes(StandardCharsets.UTF_8));
+            diagnostics.writeTo(response);
+            response.flush();
+        } catch (IOException e) {
+            // the client went away, there is no one left to report to
+            e.printStackTrace();
+        }
+    }
+
+    private static int compile(String input, String output, ByteArrayOutputStream diagnostics) {
+        PrintStream stream = new PrintStream(diagnostics, true, StandardCharsets.UTF_8);
+        try {
+            return Main.compile(Path.of(input), Path.of(output), stream);
+        } catch (IOException | RuntimeException e) {
+            // the single-shot compiler would die with an uncaught exception here
+            e.printStackTrace(stream);
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package edu.kit.kastel.vads.compiler.generator;
+
+import edu.kit.kastel.vads.compiler.PackedSpan;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.parser.ast.*;
+import edu.kit.kastel.vads.compiler.parser.symbol.SymbolTable;
+import edu.kit.kastel.vads.compiler.parser.type.BasicType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/// Generates random, but valid L1 programs of arbitrary size.
+///
+/// The same seed and settings always produce the same program.
+/// The source text and the [ProgramTree] are built together, so the spans in the tree point into the source,
+/// just like the tree the [edu.kit.kastel.vads.compiler.parser.Parser] produces for it.
+///
+/// All variables are initialized by their declaration, and only positive literals are used as divisors,
+/// so the generated programs never trap at runtime.
+public class ProgramGenerator {
+    private static final OperatorType[] ASSIGNMENTS = {
+            OperatorType.ASSIGN, OperatorType.ASSIGN_PLUS, OperatorType.ASSIGN_MINUS, OperatorType.ASSIGN_MUL,
+            OperatorType.ASSIGN_DIV, OperatorType.ASSIGN_MOD
+    };
+    private static final OperatorType[] ARITHMETIC = {OperatorType.PLUS, OperatorType.MINUS, OperatorType.MUL};
+
+    private final Random random;
+    private final Settings settings;
+    private final StringBuilder source = new StringBuilder();
+    private final List<String> variables = new ArrayList<>();
+    private final SymbolTable symbols = new SymbolTable();
+
+    /// The knobs of the generator.
+    ///
+    /// @param statements the number of statements in `main`, including declarations and the final `return`
+    /// @param variables the number of variables that are declared, at least one (unless `statements` is one)
+    ///                  and at most `statements - 1`
+    /// @param liveVariables how many of the most recently declared variables are used at any point in time.
+    ///                      All of them are live at the same time, so this controls the register pressure.
+    /// @param expressionDepth the nesting depth of the expression of each statement
+    public record Settings(int statements, int variables, int liveVariables, int expressionDepth) {
+        public Settings {
+            if (statements < 1 || variables < 0 || liveVariables < 1 || expressionDepth < 0) {
+                throw new IllegalArgumentException("invalid generator settings");
+            }
+            // assignments need a variable
+            variables = Math.min(Math.max(variables, 1), statements - 1);
+            liveVariables = Math.min(liveVariables, Math.max(variables, 1));
+        }
+
+        /// {@return settings with `statements` statements and moderate defaults for everything else}
+        public static Settings ofSize(int statements) {
+            return new Settings(statements, Math.max(1, statements / 8), 8, 3);
+        }
+    }
+
+    /// A generated program, both as source text and as tree.
+    public record GeneratedProgram(String source, ProgramTree tree) {
+    }
+
+    public ProgramGenerator(long seed, Settings settings) {
+        this.random = new Random(seed);
+        this.settings = settings;
+    }
+
+    /// Writes a program to a file.
+    /// Arguments: `output [statements [variables [liveVariables [expressionDepth [seed]]]]]`
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 6) {
+            System.err.println("Usage: ProgramGenerator output [statements [variables [liveVariables [expressionDepth [seed]]]]]");
+            System.exit(3);
+        }
+        Settings defaults = Settings.ofSize(args.length > 1 ? Integer.parseInt(args[1]) : 1000);
+        Settings settings = new Settings(
+                defaults.statements(),
+                args.length > 2 ? Integer.parseInt(args[2]) : defaults.variables(),
+                args.length > 3 ? Integer.parseInt(args[3]) : defaults.liveVariables(),
+                args.length > 4 ? Integer.parseInt(args[4]) : defaults.expressionDepth()
+        );
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 0;
+        Files.writeString(Path.of(args[0]), new ProgramGenerator(seed, settings).generate().source());
+    }
+
+    /// Generates the program. A generator can only be used once.
+    public GeneratedProgram generate() {
+        if (!this.source.isEmpty()) {
+            throw new IllegalStateException("generator has already been used");
+        }
+        TypeTree returnType = new TypeTree(BasicType.INT, write("int"));
+        write(" ");
+        NameTree main = name("main");
+        write("() ");
+        long open = write("{");
+        newLine();
+
+        int body = this.settings.statements() - 1;
+        List<StatementTree> statements = new ArrayList<>(this.settings.statements());
+        int declared = 0;
+        for (int i = 0; i < body; i++) {
+            write("    ");
+            // spread the declarations evenly across the body
+            if (declared < this.settings.variables() && (long) declared * body / this.settings.variables() <= i) {
+                statements.add(declaration("v" + declared));
+                declared++;
+            } else {
+                statements.add(assignment());
+            }
+            write(";");
+            newLine();
+        }
+        write("    ");
+        statements.add(returnStatement());
+        write(";");
+        newLine();
+        long close = write("}");
+        newLine();
+
+        FunctionTree function = new FunctionTree(returnType, main, new BlockTree(statements, PackedSpan.merge(open, close)));
+        return new GeneratedProgram(this.source.toString(), new ProgramTree(List.of(function)));
+    }
+
+    private StatementTree declaration(String variable) {
+        TypeTree type = new TypeTree(BasicType.INT, write("int"));
+        write(" ");
+        NameTree name = name(variable);
+        write(" = ");
+        ExpressionTree initializer = expression(this.settings.expressionDepth(), 0, false);
+        this.variables.add(variable);
+        return new DeclarationTree(type, name, initializer);
+    }
+
+    private StatementTree assignment() {
+        NameTree name = name(liveVariable());
+        OperatorType type = ASSIGNMENTS[this.random.nextInt(ASSIGNMENTS.length)];
+        write(" ");
+        write(type.toString());
+        write(" ");
+        ExpressionTree expression;
+        if (type == OperatorType.ASSIGN_DIV || type == OperatorType.ASSIGN_MOD) {
+            expression = divisor();
+        } else {
+            expression = expression(this.settings.expressionDepth(), 0, false);
+        }
+        return new AssignmentTree(new LValueIdentTree(name), type, expression);
+    }
+
+    private StatementTree returnStatement() {
+        int start = PackedSpan.start(write("return"));
+        write(" ");
+        // use all live variables, so they are actually live until here
+        int live = Math.min(this.variables.size(), this.settings.liveVariables());
+        if (live == 0) {
+            return new ReturnTree(literal(), start);
+        }
+        ExpressionTree expression = variable(this.variables.get(this.variables.size() - live));
+        for (int i = this.variables.size() - live + 1; i < this.variables.size(); i++) {
+            write(" + ");
+            expression = new BinaryOperationTree(expression, variable(this.variables.get(i)), OperatorType.PLUS);
+        }
+        return new ReturnTree(expression, start);
+    }
+
+    /// Writes an expression of exactly the given depth.
+    ///
+    /// @param context the precedence of the surrounding operator, `0` if there is none
+    /// @param rightOperand whether the expression is the right operand of the surrounding operator
+    private ExpressionTree expression(int depth, int context, boolean rightOperand) {
+        if (depth == 0) {
+            return this.variables.isEmpty() || this.random.nextInt(4) == 0 ? literal() : variable(liveVariable());
+        }
+        int kind = this.random.nextInt(8);
+        if (kind == 0) {
+            long minus = write("-");
+            // parenthesize anything but plain factors, "--" is not a valid operator
+            write("(");
+            ExpressionTree operand = expression(depth - 1, 0, false);
+            write(")");
+            return new NegateTree(operand, minus);
+        }
+        boolean divisionChain = kind == 1;
+        int precedence = divisionChain ? 2 : precedence(ARITHMETIC[kind % ARITHMETIC.length]);
+        // required parentheses, and some redundant ones
+        boolean parenthesize = precedence < context || (rightOperand && precedence == context) || this.random.nextInt(6) == 0;
+        if (parenthesize) {
+            write("(");
+        }
+        ExpressionTree result = expression(depth - 1, precedence, false);
+        if (divisionChain) {
+            int length = 1 + this.random.nextInt(3);
+            for (int i = 0; i < length; i++) {
+                OperatorType type = this.random.nextBoolean() ? OperatorType.DIV : OperatorType.MOD;
+                write(" " + type + " ");
+                result = new BinaryOperationTree(result, divisor(), type);
+            }
+        } else {
+            OperatorType type = ARITHMETIC[kind % ARITHMETIC.length];
+            write(" " + type + " ");
+            // the right operand is shallower, otherwise the size would grow exponentially with the depth
+            ExpressionTree rhs = expression(this.random.nextInt(depth), precedence, true);
+            result = new BinaryOperationTree(result, rhs, type);
+        }
+        if (parenthesize) {
+            write(")");
+        }
+        return result;
+    }
+
+    private ExpressionTree variable(String variable) {
+        return new IdentExpressionTree(name(variable));
+    }
+
+    private ExpressionTree literal() {
+        if (this.random.nextInt(8) == 0) {
+            int value = this.random.nextInt(0x10000);
+            String text = "0x" + Integer.toHexString(value);
+            return new LiteralTree(text, 16, value, write(text));
+        }
+        int value = this.random.nextInt(1000);
+        String text = Integer.toString(value);
+        return new LiteralTree(text, 10, value, write(text));
+    }
+
+    private ExpressionTree divisor() {
+        int value = 1 + this.random.nextInt(100);
+        String text = Integer.toString(value);
+        return new LiteralTree(text, 10, value, write(text));
+    }
+
+    private String liveVariable() {
+        int live = Math.min(this.variables.size(), this.settings.liveVariables());
+        return this.variables.get(this.variables.size() - 1 - this.random.nextInt(live));
+    }
+
+    private NameTree name(String name) {
+        long span = write(name);
+        return new NameTree(this.symbols.intern(name), span);
+    }
+
+    private static int precedence(OperatorType type) {
+        return switch (type) {
+            case PLUS, MINUS -> 1;
+            default -> 2;
+        };
+    }
+
+    private long write(String text) {
+        int start = this.source.length();
+        this.source.append(text);
+        return PackedSpan.of(start, this.source.length());
+    }
+
+    private void newLine() {
+        this.source.append('\n');
+    }
+}
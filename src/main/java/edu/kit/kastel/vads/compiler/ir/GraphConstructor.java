@@ -3,7 +3,9 @@ package edu.kit.kastel.vads.compiler.ir;
 import edu.kit.kastel.vads.compiler.ir.node.*;
 import edu.kit.kastel.vads.compiler.ir.optimize.Optimizer;
 import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import org.jspecify.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -13,7 +15,9 @@ class GraphConstructor {
 
     private final Optimizer optimizer;
     private final IrGraph graph;
-    private final Map<Name, Map<Block, Node>> currentDef = new HashMap<>();
+    // the definitions of each variable by block, indexed by the id of its name
+    @SuppressWarnings("unchecked")
+    private @Nullable Map<Block, Node>[] currentDef = new Map[64];
     private final Map<Block, Map<Name, Phi>> incompletePhis = new HashMap<>();
     private final Map<Block, Node> currentSideEffect = new HashMap<>();
     private final Map<Block, Phi> incompleteSideEffectPhis = new HashMap<>();
@@ -85,11 +89,22 @@ class GraphConstructor {
     }
 
     void writeVariable(Name variable, Block block, Node value) {
-        this.currentDef.computeIfAbsent(variable, _ -> new HashMap<>()).put(block, value);
+        int id = variable.id();
+        if (id >= this.currentDef.length) {
+            this.currentDef = Arrays.copyOf(this.currentDef, Math.max(id + 1, this.currentDef.length * 2));
+        }
+        Map<Block, Node> definitions = this.currentDef[id];
+        if (definitions == null) {
+            definitions = new HashMap<>();
+            this.currentDef[id] = definitions;
+        }
+        definitions.put(block, value);
     }
 
     Node readVariable(Name variable, Block block) {
-        Node node = this.currentDef.getOrDefault(variable, Map.of()).get(block);
+        int id = variable.id();
+        Map<Block, Node> definitions = id < this.currentDef.length ? this.currentDef[id] : null;
+        Node node = definitions == null ? null : definitions.get(block);
         if (node != null) {
             return node;
         }
@@ -102,8 +117,8 @@ class GraphConstructor {
         if (!this.sealedBlocks.contains(block)) {
             val = newPhi();
             this.incompletePhis.computeIfAbsent(block, _ -> new HashMap<>()).put(variable, (Phi) val);
-        } else if (block.predecessors().size() == 1) {
-            val = readVariable(variable, block.predecessors().getFirst().block());
+        } else if (block.predecessorCount() == 1) {
+            val = readVariable(variable, block.predecessor(0).block());
         } else {
             val = newPhi();
             writeVariable(variable, block, val);
@@ -114,8 +129,9 @@ class GraphConstructor {
     }
 
     Node addPhiOperands(Name variable, Phi phi) {
-        for (Node pred : phi.block().predecessors()) {
-            phi.appendOperand(readVariable(variable, pred.block()));
+        Block block = phi.block();
+        for (int i = 0; i < block.predecessorCount(); i++) {
+            phi.appendOperand(readVariable(variable, block.predecessor(i).block()));
         }
         return tryRemoveTrivialPhi(phi);
     }
@@ -161,8 +177,8 @@ class GraphConstructor {
             val = newPhi();
             Phi old = this.incompleteSideEffectPhis.put(block, (Phi) val);
             assert old == null : "double readSideEffectRecursive for " + block;
-        } else if (block.predecessors().size() == 1) {
-            val = readSideEffect(block.predecessors().getFirst().block());
+        } else if (block.predecessorCount() == 1) {
+            val = readSideEffect(block.predecessor(0).block());
         } else {
             val = newPhi();
             writeSideEffect(block, val);
@@ -173,8 +189,9 @@ class GraphConstructor {
     }
 
     Node addPhiOperands(Phi phi) {
-        for (Node pred : phi.block().predecessors()) {
-            phi.appendOperand(readSideEffect(pred.block()));
+        Block block = phi.block();
+        for (int i = 0; i < block.predecessorCount(); i++) {
+            phi.appendOperand(readSideEffect(block.predecessor(i).block()));
         }
         return tryRemoveTrivialPhi(phi);
     }
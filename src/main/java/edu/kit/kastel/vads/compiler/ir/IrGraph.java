@@ -2,11 +2,32 @@ package edu.kit.kastel.vads.compiler.ir;
 
 import edu.kit.kastel.vads.compiler.ir.node.Block;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
+import org.jspecify.annotations.Nullable;
 
 import java.util.*;
 
+/// The nodes of a function and the edges between them.
+///
+/// Each node gets a dense id when it is created, see [Node#id()].
+/// Analyses can keep per-node state in arrays or bit sets indexed by that id instead of hash maps,
+/// sized by [#nodeCount()]. Nodes that are no longer needed can be removed with [#retainAll(BitSet)].
+/// The predecessors and successors of the nodes are stored by the graph, as arrays of ids.
+/// There is one successor entry per edge, so a node that uses another one twice is its successor twice.
+///
+/// [#predecessors(Node)] and [#successors(Node)] are read-only views of these arrays that don't copy them.
+/// Loops that visit many nodes should use the indexed accessors like [#predecessorCount(Node)] instead,
+/// which don't allocate at all.
 public class IrGraph {
-    private final Map<Node, SequencedSet<Node>> successors = new IdentityHashMap<>();
+    private static final int[] NO_EDGES = new int[0];
+
+    private @Nullable Node[] nodes = new Node[64];
+    // the ids of the predecessors of each node, only the first predecessorCounts[id] are used
+    private int[][] predecessors = new int[64][];
+    private int[] predecessorCounts = new int[64];
+    // the ids of the successors of each node, only the first successorCounts[id] are used
+    private int[][] successors = new int[64][];
+    private int[] successorCounts = new int[64];
+    private int nodeCount;
     private final Block startBlock;
     private final Block endBlock;
     private final String name;
@@ -17,21 +38,181 @@ public class IrGraph {
         this.endBlock = new Block(this);
     }
 
+    /// Adds a new node without any edges to this graph. Only called by the constructor of [Node].
+    ///
+    /// @return the id of the node
+    public int register(Node node) {
+        int id = this.nodeCount++;
+        if (id == this.nodes.length) {
+            int capacity = id * 2;
+            this.nodes = Arrays.copyOf(this.nodes, capacity);
+            this.predecessors = Arrays.copyOf(this.predecessors, capacity);
+            this.predecessorCounts = Arrays.copyOf(this.predecessorCounts, capacity);
+            this.successors = Arrays.copyOf(this.successors, capacity);
+            this.successorCounts = Arrays.copyOf(this.successorCounts, capacity);
+        }
+        this.nodes[id] = node;
+        this.predecessors[id] = NO_EDGES;
+        this.successors[id] = NO_EDGES;
+        return id;
+    }
+
+    /// {@return the number of nodes ever created in this graph, which is greater than all of their ids}
+    public int nodeCount() {
+        return this.nodeCount;
+    }
+
+    /// {@return the node with the given id, `null` if it was removed}
+    public @Nullable Node node(int id) {
+        Objects.checkIndex(id, this.nodeCount);
+        return this.nodes[id];
+    }
+
+    /// Appends `predecessor` to the predecessors of `node`, and registers `node` as its successor.
+    public void addPredecessor(Node node, Node predecessor) {
+        int id = node.id();
+        this.predecessors[id] = append(this.predecessors[id], this.predecessorCounts[id]++, predecessor.id());
+        registerSuccessor(predecessor, node);
+    }
+
+    /// Replaces the predecessor of `node` at `idx`, and updates the successors of the old and new predecessor.
+    public void setPredecessor(Node node, int idx, Node predecessor) {
+        int id = node.id();
+        Objects.checkIndex(idx, this.predecessorCounts[id]);
+        removeSuccessor(this.nodes[this.predecessors[id][idx]], node);
+        this.predecessors[id][idx] = predecessor.id();
+        registerSuccessor(predecessor, node);
+    }
+
+    /// {@return the predecessor of `node` at `idx`}
+    public Node predecessor(Node node, int idx) {
+        int id = node.id();
+        Objects.checkIndex(idx, this.predecessorCounts[id]);
+        return this.nodes[this.predecessors[id][idx]];
+    }
+
+    /// {@return the number of predecessors of `node`}
+    public int predecessorCount(Node node) {
+        return this.predecessorCounts[node.id()];
+    }
+
+    /// {@return a view of the predecessors of `node`, in order}
+    /// The view cannot be modified, but reflects later changes to the predecessors.
+    public List<Node> predecessors(Node node) {
+        return new EdgeView(node.id(), false);
+    }
+
     public void registerSuccessor(Node node, Node successor) {
-        this.successors.computeIfAbsent(node, _ -> new LinkedHashSet<>()).add(successor);
+        int id = node.id();
+        this.successors[id] = append(this.successors[id], this.successorCounts[id]++, successor.id());
     }
 
+    /// Removes one edge from `node` to `oldSuccessor`, keeping the order of the other successors.
     public void removeSuccessor(Node node, Node oldSuccessor) {
-        this.successors.computeIfAbsent(node, _ -> new LinkedHashSet<>()).remove(oldSuccessor);
+        int id = node.id();
+        int[] successors = this.successors[id];
+        int count = this.successorCounts[id];
+        for (int i = 0; i < count; i++) {
+            if (successors[i] == oldSuccessor.id()) {
+                System.arraycopy(successors, i + 1, successors, i, count - i - 1);
+                this.successorCounts[id]--;
+                return;
+            }
+        }
     }
 
-    /// {@return the set of nodes that have the given node as one of their inputs}
-    public Set<Node> successors(Node node) {
-        SequencedSet<Node> successors = this.successors.get(node);
-        if (successors == null) {
-            return Set.of();
+    /// Makes all successors of `node` use `replacement` instead. Afterwards, `node` has no successors.
+    public void replaceAllUses(Node node, Node replacement) {
+        if (node == replacement) {
+            return;
         }
-        return Set.copyOf(successors);
+        int id = node.id();
+        int[] users = this.successors[id];
+        int count = this.successorCounts[id];
+        for (int i = 0; i < count; i++) {
+            int user = users[i];
+            // a user that has node as predecessor more than once is listed once per edge,
+            // all of its edges are replaced the first time and there are none left the next time
+            int[] predecessors = this.predecessors[user];
+            for (int j = 0; j < this.predecessorCounts[user]; j++) {
+                if (predecessors[j] == id) {
+                    predecessors[j] = replacement.id();
+                    registerSuccessor(replacement, this.nodes[user]);
+                }
+            }
+        }
+        this.successors[id] = NO_EDGES;
+        this.successorCounts[id] = 0;
+    }
+
+    /// Removes all nodes whose id is not in `live`, together with their edges.
+    /// The ids of the removed nodes are not reused.
+    ///
+    /// The predecessors and the block of each live node must be live as well,
+    /// otherwise nothing is removed.
+    ///
+    /// @return the number of removed nodes
+    /// @throws IllegalArgumentException if a live node has a predecessor or block that is not live
+    public int retainAll(BitSet live) {
+        for (int id = live.nextSetBit(0); id >= 0 && id < this.nodeCount; id = live.nextSetBit(id + 1)) {
+            Node node = this.nodes[id];
+            if (node == null) {
+                continue;
+            }
+            if (!live.get(node.block().id())) {
+                throw new IllegalArgumentException(node + " is live, but its block " + node.block() + " is not");
+            }
+            for (int i = 0; i < this.predecessorCounts[id]; i++) {
+                int predecessor = this.predecessors[id][i];
+                if (!live.get(predecessor)) {
+                    throw new IllegalArgumentException(
+                            node + " is live, but its predecessor " + this.nodes[predecessor] + " is not");
+                }
+            }
+        }
+        int removed = 0;
+        for (int id = 0; id < this.nodeCount; id++) {
+            if (this.nodes[id] == null) {
+                continue;
+            }
+            if (live.get(id)) {
+                // drop the edges to removed successors, in a single pass instead of one removal per edge
+                int[] successors = this.successors[id];
+                int count = 0;
+                for (int i = 0; i < this.successorCounts[id]; i++) {
+                    if (live.get(successors[i])) {
+                        successors[count++] = successors[i];
+                    }
+                }
+                this.successorCounts[id] = count;
+            } else {
+                this.nodes[id] = null;
+                this.predecessors[id] = NO_EDGES;
+                this.predecessorCounts[id] = 0;
+                this.successors[id] = NO_EDGES;
+                this.successorCounts[id] = 0;
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /// {@return the number of edges from `node` to its successors}
+    public int successorCount(Node node) {
+        return this.successorCounts[node.id()];
+    }
+
+    /// {@return the successor of `node` at `idx`, in the order the edges were added}
+    public Node successorAt(Node node, int idx) {
+        int id = node.id();
+        Objects.checkIndex(idx, this.successorCounts[id]);
+        return this.nodes[this.successors[id][idx]];
+    }
+
+    /// {@return a view of the nodes that have the given node as one of their inputs, once per edge}
+    /// The view cannot be modified, but reflects later changes to the successors.
+    public List<Node> successors(Node node) {
+        return new EdgeView(node.id(), true);
     }
 
     public Block startBlock() {
@@ -46,4 +227,36 @@ public class IrGraph {
     public String name() {
         return name;
     }
+
+    private static int[] append(int[] edges, int index, int target) {
+        if (index == edges.length) {
+            edges = Arrays.copyOf(edges, Math.max(2, index * 2));
+        }
+        edges[index] = target;
+        return edges;
+    }
+
+    /// The predecessors or successors of a node. Reads the arrays of the graph on every access,
+    /// as they are replaced when they grow.
+    private final class EdgeView extends AbstractList<Node> implements RandomAccess {
+        private final int id;
+        private final boolean successors;
+
+        EdgeView(int id, boolean successors) {
+            this.id = id;
+            this.successors = successors;
+        }
+
+        @Override
+        public Node get(int index) {
+            Objects.checkIndex(index, size());
+            int[] edges = this.successors ? IrGraph.this.successors[this.id] : IrGraph.this.predecessors[this.id];
+            return IrGraph.this.nodes[edges[index]];
+        }
+
+        @Override
+        public int size() {
+            return this.successors ? IrGraph.this.successorCounts[this.id] : IrGraph.this.predecessorCounts[this.id];
+        }
+    }
 }
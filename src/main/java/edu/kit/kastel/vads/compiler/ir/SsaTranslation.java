@@ -9,11 +9,12 @@ import edu.kit.kastel.vads.compiler.ir.util.DebugInfo;
 import edu.kit.kastel.vads.compiler.ir.util.DebugInfoHelper;
 import edu.kit.kastel.vads.compiler.parser.ast.*;
 import edu.kit.kastel.vads.compiler.parser.symbol.Name;
-import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
+import edu.kit.kastel.vads.compiler.parser.visitor.PostorderTraversal;
+import edu.kit.kastel.vads.compiler.parser.visitor.PostorderVisitor;
+import edu.kit.kastel.vads.compiler.parser.visitor.Unit;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.Optional;
 import java.util.function.BinaryOperator;
 
 /// SSA translation as described in
@@ -34,7 +35,7 @@ public class SsaTranslation {
 
     public IrGraph translate() {
         var visitor = new SsaTranslationVisitor();
-        this.function.accept(visitor, this);
+        PostorderTraversal.traverse(this.function, visitor, this);
         return this.constructor.graph();
     }
 
@@ -50,12 +51,14 @@ public class SsaTranslation {
         return this.constructor.currentBlock();
     }
 
-    private static class SsaTranslationVisitor implements Visitor<SsaTranslation, Optional<Node>> {
-
-        @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
-        private static final Optional<Node> NOT_AN_EXPRESSION = Optional.empty();
+    /// Translates the trees in postorder, so the operands of an expression are translated before the expression.
+    /// The values of translated expressions wait on a stack until their parent takes them.
+    private static class SsaTranslationVisitor implements PostorderVisitor<SsaTranslation, Unit> {
 
         private final Deque<DebugInfo> debugStack = new ArrayDeque<>();
+        private final Deque<Node> values = new ArrayDeque<>();
+        // whether the current block has returned already
+        private boolean returned;
 
         private void pushSpan(Tree tree) {
             this.debugStack.push(DebugInfoHelper.getDebugInfo());
@@ -67,21 +70,34 @@ public class SsaTranslation {
         }
 
         @Override
-        public Optional<Node> visit(AssignmentTree assignmentTree, SsaTranslation data) {
-            pushSpan(assignmentTree);
-            BinaryOperator<Node> desugar = switch (assignmentTree.operator().type()) {
+        public boolean enter(Tree tree, SsaTranslation data) {
+            // skip everything after a return in a block
+            if (this.returned && tree instanceof StatementTree) {
+                return false;
+            }
+            pushSpan(tree);
+            if (tree instanceof FunctionTree) {
+                Node start = data.constructor.newStart();
+                data.constructor.writeCurrentSideEffect(data.constructor.newSideEffectProj(start));
+            }
+            return true;
+        }
+
+        @Override
+        public Unit visit(AssignmentTree assignmentTree, SsaTranslation data) {
+            BinaryOperator<Node> desugar = switch (assignmentTree.operatorType()) {
                 case ASSIGN_MINUS -> data.constructor::newSub;
                 case ASSIGN_PLUS -> data.constructor::newAdd;
                 case ASSIGN_MUL -> data.constructor::newMul;
                 case ASSIGN_DIV -> (lhs, rhs) -> projResultDivMod(data, data.constructor.newDiv(lhs, rhs));
                 case ASSIGN_MOD -> (lhs, rhs) -> projResultDivMod(data, data.constructor.newMod(lhs, rhs));
                 case ASSIGN -> null;
-                default -> throw new IllegalArgumentException("not an assignment operator " + assignmentTree.operator());
+                default -> throw new IllegalArgumentException("not an assignment operator " + assignmentTree.operatorType());
             };
 
             switch (assignmentTree.lValue()) {
                 case LValueIdentTree(var name) -> {
-                    Node rhs = assignmentTree.expression().accept(this, data).orElseThrow();
+                    Node rhs = this.values.pop();
                     if (desugar != null) {
                         rhs = desugar.apply(data.readVariable(name.name(), data.currentBlock()), rhs);
                     }
@@ -89,14 +105,13 @@ public class SsaTranslation {
                 }
             }
             popSpan();
-            return NOT_AN_EXPRESSION;
+            return Unit.INSTANCE;
         }
 
         @Override
-        public Optional<Node> visit(BinaryOperationTree binaryOperationTree, SsaTranslation data) {
-            pushSpan(binaryOperationTree);
-            Node lhs = binaryOperationTree.lhs().accept(this, data).orElseThrow();
-            Node rhs = binaryOperationTree.rhs().accept(this, data).orElseThrow();
+        public Unit visit(BinaryOperationTree binaryOperationTree, SsaTranslation data) {
+            Node rhs = this.values.pop();
+            Node lhs = this.values.pop();
             Node res = switch (binaryOperationTree.operatorType()) {
                 case MINUS -> data.constructor.newSub(lhs, rhs);
                 case PLUS -> data.constructor.newAdd(lhs, rhs);
@@ -105,103 +120,95 @@ public class SsaTranslation {
                 case MOD -> projResultDivMod(data, data.constructor.newMod(lhs, rhs));
                 default -> throw new IllegalArgumentException("not a binary expression operator " + binaryOperationTree.operatorType());
             };
+            this.values.push(res);
             popSpan();
-            return Optional.of(res);
+            return Unit.INSTANCE;
         }
 
         @Override
-        public Optional<Node> visit(BlockTree blockTree, SsaTranslation data) {
-            pushSpan(blockTree);
-            for (StatementTree statement : blockTree.statements()) {
-                statement.accept(this, data);
-                // skip everything after a return in a block
-                if (statement instanceof ReturnTree) {
-                    break;
-                }
-            }
+        public Unit visit(BlockTree blockTree, SsaTranslation data) {
+            // statements after the block are translated again
+            this.returned = false;
             popSpan();
-            return NOT_AN_EXPRESSION;
+            return Unit.INSTANCE;
         }
 
         @Override
-        public Optional<Node> visit(DeclarationTree declarationTree, SsaTranslation data) {
-            pushSpan(declarationTree);
+        public Unit visit(DeclarationTree declarationTree, SsaTranslation data) {
             if (declarationTree.initializer() != null) {
-                Node rhs = declarationTree.initializer().accept(this, data).orElseThrow();
+                Node rhs = this.values.pop();
                 data.writeVariable(declarationTree.name().name(), data.currentBlock(), rhs);
             }
             popSpan();
-            return NOT_AN_EXPRESSION;
+            return Unit.INSTANCE;
         }
 
         @Override
-        public Optional<Node> visit(FunctionTree functionTree, SsaTranslation data) {
-            pushSpan(functionTree);
-            Node start = data.constructor.newStart();
-            data.constructor.writeCurrentSideEffect(data.constructor.newSideEffectProj(start));
-            functionTree.body().accept(this, data);
+        public Unit visit(FunctionTree functionTree, SsaTranslation data) {
             popSpan();
-            return NOT_AN_EXPRESSION;
+            return Unit.INSTANCE;
         }
 
         @Override
-        public Optional<Node> visit(IdentExpressionTree identExpressionTree, SsaTranslation data) {
-            pushSpan(identExpressionTree);
-            Node value = data.readVariable(identExpressionTree.name().name(), data.currentBlock());
+        public Unit visit(IdentExpressionTree identExpressionTree, SsaTranslation data) {
+            this.values.push(data.readVariable(identExpressionTree.name().name(), data.currentBlock()));
             popSpan();
-            return Optional.of(value);
+            return Unit.INSTANCE;
         }
 
         @Override
-        public Optional<Node> visit(LiteralTree literalTree, SsaTranslation data) {
-            pushSpan(literalTree);
-            Node node = data.constructor.newConstInt((int) literalTree.parseValue().orElseThrow());
+        public Unit visit(LiteralTree literalTree, SsaTranslation data) {
+            this.values.push(data.constructor.newConstInt(literalTree.intValue()));
             popSpan();
-            return Optional.of(node);
+            return Unit.INSTANCE;
         }
 
         @Override
-        public Optional<Node> visit(LValueIdentTree lValueIdentTree, SsaTranslation data) {
-            return NOT_AN_EXPRESSION;
+        public Unit visit(LValueIdentTree lValueIdentTree, SsaTranslation data) {
+            popSpan();
+            return Unit.INSTANCE;
         }
 
         @Override
-        public Optional<Node> visit(NameTree nameTree, SsaTranslation data) {
-            return NOT_AN_EXPRESSION;
+        public Unit visit(NameTree nameTree, SsaTranslation data) {
+            popSpan();
+            return Unit.INSTANCE;
         }
 
         @Override
-        public Optional<Node> visit(NegateTree negateTree, SsaTranslation data) {
-            pushSpan(negateTree);
-            Node node = negateTree.expression().accept(this, data).orElseThrow();
-            Node res = data.constructor.newSub(data.constructor.newConstInt(0), node);
+        public Unit visit(NegateTree negateTree, SsaTranslation data) {
+            Node node = this.values.pop();
+            this.values.push(data.constructor.newSub(data.constructor.newConstInt(0), node));
             popSpan();
-            return Optional.of(res);
+            return Unit.INSTANCE;
         }
 
         @Override
-        public Optional<Node> visit(ProgramTree programTree, SsaTranslation data) {
+        public Unit visit(ProgramTree programTree, SsaTranslation data) {
             throw new UnsupportedOperationException();
         }
 
         @Override
-        public Optional<Node> visit(ReturnTree returnTree, SsaTranslation data) {
-            pushSpan(returnTree);
-            Node node = returnTree.expression().accept(this, data).orElseThrow();
+        public Unit visit(ReturnTree returnTree, SsaTranslation data) {
+            Node node = this.values.pop();
             Node ret = data.constructor.newReturn(node);
             data.constructor.graph().endBlock().addPredecessor(ret);
+            this.returned = true;
             popSpan();
-            return NOT_AN_EXPRESSION;
+            return Unit.INSTANCE;
         }
 
         @Override
-        public Optional<Node> visit(TypeTree typeTree, SsaTranslation data) {
-            throw new UnsupportedOperationException();
+        public Unit visit(TypeTree typeTree, SsaTranslation data) {
+            popSpan();
+            return Unit.INSTANCE;
         }
 
         private Node projResultDivMod(SsaTranslation data, Node divMod) {
             // make sure we actually have a div or a mod, as optimizations could
-            // have changed it to something else already
+            // have changed it to something else already.
+            // only a div or mod that is still there becomes the current side effect, so one that was
+            // folded or simplified away never joins the side effect chain and needs no rewiring
             if (!(divMod instanceof DivNode || divMod instanceof ModNode)) {
                 return divMod;
             }
@@ -4,22 +4,23 @@ import edu.kit.kastel.vads.compiler.ir.IrGraph;
 import edu.kit.kastel.vads.compiler.ir.util.DebugInfo;
 import edu.kit.kastel.vads.compiler.ir.util.DebugInfoHelper;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /// The base class for all nodes.
+///
+/// Each node has an [#id()] that is dense within its graph. The edges between nodes are stored by the [IrGraph].
 public sealed abstract class Node permits BinaryOperationNode, Block, ConstIntNode, Phi, ProjNode, ReturnNode, StartNode {
     private final IrGraph graph;
     private final Block block;
-    private final List<Node> predecessors = new ArrayList<>();
+    private final int id;
     private final DebugInfo debugInfo;
 
     protected Node(Block block, Node... predecessors) {
         this.graph = block.graph();
         this.block = block;
-        this.predecessors.addAll(List.of(predecessors));
+        this.id = this.graph.register(this);
         for (Node predecessor : predecessors) {
-            graph.registerSuccessor(predecessor, this);
+            this.graph.addPredecessor(this, predecessor);
         }
         this.debugInfo = DebugInfoHelper.getDebugInfo();
     }
@@ -28,6 +29,7 @@ public sealed abstract class Node permits BinaryOperationNode, Block, ConstIntNo
         assert this.getClass() == Block.class : "must be used by Block only";
         this.graph = graph;
         this.block = (Block) this;
+        this.id = graph.register(this);
         this.debugInfo = DebugInfo.NoInfo.INSTANCE;
     }
 
@@ -39,23 +41,31 @@ public sealed abstract class Node permits BinaryOperationNode, Block, ConstIntNo
         return this.block;
     }
 
+    /// {@return the id of this node, an index for per-node arrays of its graph}
+    public final int id() {
+        return this.id;
+    }
+
+    /// {@return a read-only view of the predecessors of this node}
+    /// Prefer [#predecessorCount()] and [#predecessor(int)] in loops over many nodes, they don't allocate.
     public final List<? extends Node> predecessors() {
-        return List.copyOf(this.predecessors);
+        return this.graph.predecessors(this);
+    }
+
+    public final int predecessorCount() {
+        return this.graph.predecessorCount(this);
     }
 
     public final void setPredecessor(int idx, Node node) {
-        this.graph.removeSuccessor(this.predecessors.get(idx), this);
-        this.predecessors.set(idx, node);
-        this.graph.registerSuccessor(node, this);
+        this.graph.setPredecessor(this, idx, node);
     }
 
     public final void addPredecessor(Node node) {
-        this.predecessors.add(node);
-        this.graph.registerSuccessor(node, this);
+        this.graph.addPredecessor(this, node);
     }
 
     public final Node predecessor(int idx) {
-        return this.predecessors.get(idx);
+        return this.graph.predecessor(this, idx);
     }
 
     @Override
@@ -72,6 +82,7 @@ public sealed abstract class Node permits BinaryOperationNode, Block, ConstIntNo
     }
 
     protected static int predecessorHash(Node node, int predecessor) {
-        return System.identityHashCode(node.predecessor(predecessor));
+        // ids are small and dense, spread them over all bits so combining two of them doesn't collide
+        return node.predecessor(predecessor).id() * 0x9E3779B9;
     }
 }
@@ -0,0 +1,61 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+
+/// Replaces binary operations by one of their operands or a constant, using algebraic identities:
+/// `x + 0 = x`, `x - 0 = x`, `x - x = 0`, `0 - (0 - x) = x`, `x * 1 = x`, `x * 0 = 0`,
+/// and `x / 1 = x`, `x % 1 = 0`, the only division and modulo by a constant that can never trap.
+/// Like in [ConstantFolding], a removed division or modulo doesn't become part of the side effect chain.
+public class AlgebraicSimplification implements Optimizer {
+
+    @Override
+    public Node transform(Node node) {
+        if (!(node instanceof BinaryOperationNode operation)) {
+            return node;
+        }
+        Node left = node.predecessor(BinaryOperationNode.LEFT);
+        Node right = node.predecessor(BinaryOperationNode.RIGHT);
+        return switch (operation) {
+            case AddNode _ -> {
+                if (isConstant(right, 0)) {
+                    yield left;
+                }
+                yield isConstant(left, 0) ? right : node;
+            }
+            case SubNode _ -> {
+                if (isConstant(right, 0)) {
+                    yield left;
+                }
+                if (left == right) {
+                    yield ConstantFolding.constant(node, 0);
+                }
+                // a double negation
+                if (isConstant(left, 0) && right instanceof SubNode inner
+                    && isConstant(inner.predecessor(BinaryOperationNode.LEFT), 0)) {
+                    yield inner.predecessor(BinaryOperationNode.RIGHT);
+                }
+                yield node;
+            }
+            case MulNode _ -> {
+                // x * 0 yields the constant itself
+                if (isConstant(right, 1) || isConstant(left, 0)) {
+                    yield left;
+                }
+                yield isConstant(left, 1) || isConstant(right, 0) ? right : node;
+            }
+            case DivNode _ -> isConstant(right, 1) ? left : node;
+            case ModNode _ -> isConstant(right, 1) ? ConstantFolding.constant(node, 0) : node;
+        };
+    }
+
+    private static boolean isConstant(Node node, int value) {
+        return node instanceof ConstIntNode constant && constant.value() == value;
+    }
+}
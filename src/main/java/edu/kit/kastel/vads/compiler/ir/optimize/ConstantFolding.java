@@ -0,0 +1,48 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+
+/// Replaces binary operations on two constants by a constant with their result.
+/// The arithmetic wraps around at 32 bits, like the instructions of the target.
+///
+/// A division or modulo is only folded if it cannot trap at runtime,
+/// that is if the divisor is neither `0` nor `-1` with [Integer#MIN_VALUE] as the dividend.
+/// Otherwise, it is kept so the program still traps.
+/// A folded division or modulo is never projected, so it doesn't become part of the side effect chain.
+public class ConstantFolding implements Optimizer {
+
+    @Override
+    public Node transform(Node node) {
+        if (!(node instanceof BinaryOperationNode operation)
+            || !(node.predecessor(BinaryOperationNode.LEFT) instanceof ConstIntNode left)
+            || !(node.predecessor(BinaryOperationNode.RIGHT) instanceof ConstIntNode right)) {
+            return node;
+        }
+        int l = left.value();
+        int r = right.value();
+        return switch (operation) {
+            case AddNode _ -> constant(node, l + r);
+            case SubNode _ -> constant(node, l - r);
+            case MulNode _ -> constant(node, l * r);
+            // Java's division truncates towards zero, like idiv
+            case DivNode _ -> canTrap(l, r) ? node : constant(node, l / r);
+            case ModNode _ -> canTrap(l, r) ? node : constant(node, l % r);
+        };
+    }
+
+    private static boolean canTrap(int dividend, int divisor) {
+        return divisor == 0 || (divisor == -1 && dividend == Integer.MIN_VALUE);
+    }
+
+    static ConstIntNode constant(Node replaced, int value) {
+        // like GraphConstructor#newConstInt
+        return new ConstIntNode(replaced.graph().startBlock(), value);
+    }
+}
@@ -0,0 +1,48 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+
+/// Removes the nodes that the end block doesn't reach, like values that are overwritten before they are used,
+/// nodes replaced by optimizations and the code after a return.
+///
+/// The live nodes are marked with a worklist, starting at the end block and following the predecessors
+/// and the block of each node. A [edu.kit.kastel.vads.compiler.ir.node.DivNode] or
+/// [edu.kit.kastel.vads.compiler.ir.node.ModNode] that may trap is kept even if its result is unused,
+/// as the side effect chain that ends in a return reaches it.
+/// All other nodes are removed from the graph with their edges, so they don't stay registered as successors.
+public class DeadNodeElimination {
+    private final IrGraph graph;
+
+    public DeadNodeElimination(IrGraph graph) {
+        this.graph = graph;
+    }
+
+    /// Removes all nodes that are not reachable from the end block.
+    ///
+    /// @return the number of removed nodes
+    public int run() {
+        BitSet live = new BitSet(this.graph.nodeCount());
+        Deque<Node> worklist = new ArrayDeque<>();
+        mark(this.graph.endBlock(), live, worklist);
+        while (!worklist.isEmpty()) {
+            Node node = worklist.pop();
+            for (int i = 0; i < node.predecessorCount(); i++) {
+                mark(node.predecessor(i), live, worklist);
+            }
+            mark(node.block(), live, worklist);
+        }
+        return this.graph.retainAll(live);
+    }
+
+    private static void mark(Node node, BitSet live, Deque<Node> worklist) {
+        if (!live.get(node.id())) {
+            live.set(node.id());
+            worklist.push(node);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.util.DominatorTree;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/// Replaces [BinaryOperationNode]s by congruent ones in the same or a dominating block.
+/// [LocalValueNumbering] only finds them in the same block, as [Node#equals(Object)] takes the block into account.
+///
+/// The blocks are visited in preorder of the [DominatorTree], with a table of the values of the blocks
+/// that dominate the current one. Within a block, operands are visited before the nodes that use them,
+/// so the operands of a node were already replaced when it is looked up.
+///
+/// Two operations are congruent if they are of the same kind and have the same operands, in any order if they commute.
+/// A [DivNode] or [ModNode] additionally needs the same side effect predecessor,
+/// so it is only replaced if nothing with a side effect can happen in between.
+/// Its projections are replaced along with it.
+/// Replaced nodes stay in the graph without any successors.
+public class GlobalValueNumbering {
+    private static final int ENTER = -1;
+    private static final int NO_SIDE_EFFECT = -1;
+
+    private final IrGraph graph;
+    private final Map<Key, Node> values = new HashMap<>();
+    private int replaced;
+
+    public GlobalValueNumbering(IrGraph graph) {
+        this.graph = graph;
+    }
+
+    /// Replaces all operations that are congruent to one in the same or a dominating block.
+    ///
+    /// @return the number of replaced nodes
+    public int run() {
+        DominatorTree dominatorTree = new DominatorTree(this.graph);
+        List<Node>[] nodes = nodesByBlock(dominatorTree);
+        // the keys added by the blocks on the path to the current one, in order
+        List<Key> added = new ArrayList<>();
+        Deque<Visit> stack = new ArrayDeque<>();
+        stack.push(new Visit(dominatorTree.root(), ENTER));
+        while (!stack.isEmpty()) {
+            Visit visit = stack.pop();
+            if (visit.mark() != ENTER) {
+                // leaving the block, its values don't dominate the remaining blocks
+                while (added.size() > visit.mark()) {
+                    this.values.remove(added.removeLast());
+                }
+                continue;
+            }
+            Block block = visit.block();
+            stack.push(new Visit(block, added.size()));
+            List<Node> blockNodes = nodes[block.id()];
+            if (blockNodes != null) {
+                for (Node node : blockNodes) {
+                    number(node, added);
+                }
+            }
+            for (Block child : dominatorTree.children(block)) {
+                stack.push(new Visit(child, ENTER));
+            }
+        }
+        return this.replaced;
+    }
+
+    private void number(Node node, List<Key> added) {
+        Key key = key(node);
+        if (key == null) {
+            return;
+        }
+        Node existing = this.values.putIfAbsent(key, node);
+        if (existing == null) {
+            added.add(key);
+        } else {
+            this.graph.replaceAllUses(node, existing);
+            this.replaced++;
+        }
+    }
+
+    private static @Nullable Key key(Node node) {
+        return switch (node) {
+            case BinaryOperationNode operation -> {
+                int left = operation.predecessor(BinaryOperationNode.LEFT).id();
+                int right = operation.predecessor(BinaryOperationNode.RIGHT).id();
+                if (operation instanceof AddNode || operation instanceof MulNode) {
+                    // commutative operation: op(x, y) == op(y, x)
+                    yield new Key(operation.getClass(), Math.min(left, right), Math.max(left, right), NO_SIDE_EFFECT);
+                }
+                int sideEffect = switch (operation) {
+                    case DivNode _ -> operation.predecessor(DivNode.SIDE_EFFECT).id();
+                    case ModNode _ -> operation.predecessor(ModNode.SIDE_EFFECT).id();
+                    default -> NO_SIDE_EFFECT;
+                };
+                yield new Key(operation.getClass(), left, right, sideEffect);
+            }
+            case ProjNode projection when projection.predecessor(ProjNode.IN) instanceof BinaryOperationNode ->
+                    new Key(projection.projectionInfo(), projection.predecessor(ProjNode.IN).id(), 0, NO_SIDE_EFFECT);
+            default -> null;
+        };
+    }
+
+    /// {@return the operations and projections of each block of the tree by its id, operands first}
+    @SuppressWarnings("unchecked")
+    private List<Node>[] nodesByBlock(DominatorTree dominatorTree) {
+        List<Node>[] nodes = new List[this.graph.nodeCount()];
+        // a postorder from the end block: predecessors, then the block of a node, then the node itself
+        BitSet seen = new BitSet(this.graph.nodeCount());
+        int[] next = new int[this.graph.nodeCount()];
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(this.graph.endBlock());
+        seen.set(this.graph.endBlock().id());
+        while (!stack.isEmpty()) {
+            Node node = stack.peek();
+            int index = next[node.id()]++;
+            Node input;
+            if (index < node.predecessorCount()) {
+                input = node.predecessor(index);
+            } else if (index == node.predecessorCount()) {
+                input = node.block();
+            } else {
+                stack.pop();
+                if ((node instanceof BinaryOperationNode || node instanceof ProjNode)
+                    && dominatorTree.contains(node.block())) {
+                    List<Node> blockNodes = nodes[node.block().id()];
+                    if (blockNodes == null) {
+                        blockNodes = new ArrayList<>();
+                        nodes[node.block().id()] = blockNodes;
+                    }
+                    blockNodes.add(node);
+                }
+                continue;
+            }
+            if (!seen.get(input.id())) {
+                seen.set(input.id());
+                stack.push(input);
+            }
+        }
+        return nodes;
+    }
+
+    /// A block to enter, or to leave with the number of keys there were before it was entered.
+    private record Visit(Block block, int mark) {
+    }
+
+    private record Key(Object operation, int left, int right, int sideEffect) {
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Map;
 /// is extremely simple.
 /// When using classes like [HashMap] or [java.util.HashSet] without this optimization,
 /// the [Node#equals(java.lang.Object)] and  [Node#hashCode()] methods must be adjusted.
+/// [GlobalValueNumbering] finds the values that are computed again in the blocks dominated by another one.
 public class LocalValueNumbering implements Optimizer {
     private final Map<Node, Node> knownNodes = new HashMap<>();
 
@@ -3,7 +3,20 @@ package edu.kit.kastel.vads.compiler.ir.optimize;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
 
 /// An interface that allows replacing a node with a more optimal one.
+///
+/// Optimizers can be chained with [#andThen(Optimizer)].
+/// An optimizer that creates new nodes should come before [LocalValueNumbering],
+/// so the new nodes are numbered too.
+///
+/// A [edu.kit.kastel.vads.compiler.ir.node.DivNode] or [edu.kit.kastel.vads.compiler.ir.node.ModNode]
+/// may only be replaced if it cannot trap. [edu.kit.kastel.vads.compiler.ir.SsaTranslation] only adds
+/// the ones that are returned unchanged to the side effect chain.
 public interface Optimizer {
 
     Node transform(Node node);
+
+    /// {@return an optimizer that passes the result of this optimizer to `next`}
+    default Optimizer andThen(Optimizer next) {
+        return node -> next.transform(transform(node));
+    }
 }
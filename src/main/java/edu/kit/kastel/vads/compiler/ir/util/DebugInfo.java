@@ -1,13 +1,12 @@
 package edu.kit.kastel.vads.compiler.ir.util;
 
-import edu.kit.kastel.vads.compiler.Span;
-
 /// Provides information to ease debugging
 public sealed interface DebugInfo {
     enum NoInfo implements DebugInfo {
         INSTANCE
     }
 
-    record SourceInfo(Span span) implements DebugInfo {
+    /// @param span the [edu.kit.kastel.vads.compiler.PackedSpan] of the source
+    record SourceInfo(long span) implements DebugInfo {
     }
 }
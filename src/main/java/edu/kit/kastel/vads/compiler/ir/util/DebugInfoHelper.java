@@ -3,14 +3,15 @@ package edu.kit.kastel.vads.compiler.ir.util;
 /// This is a dirty trick as we don't have Scoped Values.
 /// It allows tracking debug info without having to pass it
 /// down all the layers.
+/// The info is kept per thread, so concurrent compilations don't see each other's spans.
 public final class DebugInfoHelper {
-    private static DebugInfo debugInfo = DebugInfo.NoInfo.INSTANCE;
+    private static final ThreadLocal<DebugInfo> DEBUG_INFO = ThreadLocal.withInitial(() -> DebugInfo.NoInfo.INSTANCE);
 
     public static void setDebugInfo(DebugInfo debugInfo) {
-        DebugInfoHelper.debugInfo = debugInfo;
+        DEBUG_INFO.set(debugInfo);
     }
 
     public static DebugInfo getDebugInfo() {
-        return debugInfo;
+        return DEBUG_INFO.get();
     }
 }
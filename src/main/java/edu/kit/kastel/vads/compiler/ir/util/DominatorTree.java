@@ -0,0 +1,161 @@
+package edu.kit.kastel.vads.compiler.ir.util;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/// The dominator tree of the blocks of a graph, computed with the iterative algorithm of
+/// [`A Simple, Fast Dominance Algorithm`](https://www.cs.tufts.edu/comp/150FP/archive/keith-cooper/dom14.pdf).
+///
+/// The control flow predecessors of a block are the blocks of its predecessors.
+/// Only blocks that are reachable from the start block and reach the end block are part of the tree,
+/// as only their nodes are ever executed and used.
+public final class DominatorTree {
+    private static final int UNDEFINED = -1;
+
+    // the blocks in reverse postorder, the start block first
+    private final Block[] blocks;
+    // the index of each block in blocks by its id, UNDEFINED for blocks that are not part of the tree
+    private final int[] order;
+    // the index of the immediate dominator of each block by its index, the start block dominates itself
+    private final int[] immediateDominators;
+    // the children of each block by its index
+    private final List<List<Block>> children;
+
+    public DominatorTree(IrGraph graph) {
+        List<Block>[] successors = controlFlowSuccessors(graph);
+        this.order = new int[graph.nodeCount()];
+        Arrays.fill(this.order, UNDEFINED);
+        this.blocks = reversePostorder(graph.startBlock(), successors, this.order);
+        this.immediateDominators = computeImmediateDominators();
+        this.children = new ArrayList<>(this.blocks.length);
+        for (int i = 0; i < this.blocks.length; i++) {
+            this.children.add(new ArrayList<>());
+        }
+        for (int i = 1; i < this.blocks.length; i++) {
+            this.children.get(this.immediateDominators[i]).add(this.blocks[i]);
+        }
+    }
+
+    /// {@return the start block, the root of the tree}
+    public Block root() {
+        return this.blocks[0];
+    }
+
+    /// {@return whether `block` is part of this tree}
+    public boolean contains(Block block) {
+        return this.order[block.id()] != UNDEFINED;
+    }
+
+    /// {@return the blocks that `block` immediately dominates}
+    public List<Block> children(Block block) {
+        return this.children.get(index(block));
+    }
+
+    private int index(Block block) {
+        int index = this.order[block.id()];
+        if (index == UNDEFINED) {
+            throw new IllegalArgumentException(block + " is not part of the dominator tree");
+        }
+        return index;
+    }
+
+    /// {@return the successors of the blocks that reach the end block, by their id}
+    @SuppressWarnings("unchecked")
+    private static List<Block>[] controlFlowSuccessors(IrGraph graph) {
+        List<Block>[] successors = new List[graph.nodeCount()];
+        successors[graph.endBlock().id()] = new ArrayList<>();
+        List<Block> stack = new ArrayList<>(List.of(graph.endBlock()));
+        while (!stack.isEmpty()) {
+            Block block = stack.removeLast();
+            for (int i = 0; i < block.predecessorCount(); i++) {
+                Block predecessor = block.predecessor(i).block();
+                if (successors[predecessor.id()] == null) {
+                    successors[predecessor.id()] = new ArrayList<>();
+                    stack.add(predecessor);
+                }
+                successors[predecessor.id()].add(block);
+            }
+        }
+        return successors;
+    }
+
+    private static Block[] reversePostorder(Block start, List<Block>[] successors, int[] order) {
+        List<Block> postorder = new ArrayList<>();
+        if (successors[start.id()] == null) {
+            // the start block doesn't reach the end block
+            successors[start.id()] = List.of();
+        }
+        // the blocks on the path to the current one, and the index of their next successor
+        List<Block> stack = new ArrayList<>(List.of(start));
+        List<Integer> next = new ArrayList<>(List.of(0));
+        order[start.id()] = 0;
+        while (!stack.isEmpty()) {
+            Block block = stack.getLast();
+            int index = next.getLast();
+            List<Block> blockSuccessors = successors[block.id()];
+            if (index == blockSuccessors.size()) {
+                stack.removeLast();
+                next.removeLast();
+                postorder.add(block);
+                continue;
+            }
+            next.set(next.size() - 1, index + 1);
+            Block successor = blockSuccessors.get(index);
+            if (order[successor.id()] == UNDEFINED) {
+                // marks the block as reached, the final index is assigned below
+                order[successor.id()] = 0;
+                stack.add(successor);
+                next.add(0);
+            }
+        }
+        Block[] blocks = new Block[postorder.size()];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = postorder.get(blocks.length - 1 - i);
+            order[blocks[i].id()] = i;
+        }
+        return blocks;
+    }
+
+    private int[] computeImmediateDominators() {
+        int[] dominators = new int[this.blocks.length];
+        Arrays.fill(dominators, UNDEFINED);
+        dominators[0] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i < this.blocks.length; i++) {
+                Block block = this.blocks[i];
+                int dominator = UNDEFINED;
+                for (int j = 0; j < block.predecessorCount(); j++) {
+                    int predecessor = this.order[block.predecessor(j).block().id()];
+                    if (predecessor == UNDEFINED || dominators[predecessor] == UNDEFINED) {
+                        // not reachable from the start block, or not processed yet
+                        continue;
+                    }
+                    dominator = dominator == UNDEFINED ? predecessor : intersect(dominators, dominator, predecessor);
+                }
+                if (dominators[i] != dominator) {
+                    dominators[i] = dominator;
+                    changed = true;
+                }
+            }
+        }
+        return dominators;
+    }
+
+    private static int intersect(int[] dominators, int a, int b) {
+        while (a != b) {
+            while (a > b) {
+                a = dominators[a];
+            }
+            while (b > a) {
+                b = dominators[b];
+            }
+        }
+        return a;
+    }
+}
@@ -1,50 +1,66 @@
 package edu.kit.kastel.vads.compiler.ir.util;
 
-import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.LineMap;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
 import edu.kit.kastel.vads.compiler.ir.node.Block;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
+import org.jspecify.annotations.Nullable;
 
 import java.util.*;
 
 /// Outputs a DOT format string to visualize an [IrGraph].
+/// Nodes are named by their [Node#id()].
+/// Their source spans are shown as lines and columns in the tooltips, resolved by the [LineMap] of the source.
 public class GraphVizPrinter {
-    private final Map<Block, Set<Node>> clusters = new HashMap<>();
+    // the nodes of each block, indexed by the id of the block
+    private final @Nullable List<Node>[] clusters;
     private final List<Edge> edges = new ArrayList<>();
-    private final Map<Node, Integer> ids = new HashMap<>();
     private final StringBuilder builder = new StringBuilder();
     private final IrGraph graph;
-    private int counter = 0;
+    private final LineMap lineMap;
 
-    public GraphVizPrinter(IrGraph graph) {
+    @SuppressWarnings("unchecked")
+    public GraphVizPrinter(IrGraph graph, LineMap lineMap) {
         this.graph = graph;
+        this.lineMap = lineMap;
+        this.clusters = new List[graph.nodeCount()];
     }
 
-    public static String print(IrGraph graph) {
-        GraphVizPrinter printer = new GraphVizPrinter(graph);
-        printer.prepare(graph.endBlock(), new HashSet<>());
+    public static String print(IrGraph graph, LineMap lineMap) {
+        GraphVizPrinter printer = new GraphVizPrinter(graph, lineMap);
+        printer.prepare(graph.endBlock(), new BitSet(graph.nodeCount()));
         printer.print();
         return printer.builder.toString();
     }
 
-    private void prepare(Node node, Set<Node> seen) {
-        if (!seen.add(node)) {
+    private void prepare(Node node, BitSet seen) {
+        if (seen.get(node.id())) {
             return;
         }
+        seen.set(node.id());
 
         if (!(node instanceof Block)) {
-            this.clusters.computeIfAbsent(node.block(), _ -> Collections.newSetFromMap(new IdentityHashMap<>())).add(node);
+            cluster(node.block()).add(node);
         }
-        int idx = 0;
-        for (Node predecessor : node.predecessors()) {
-            this.edges.add(new Edge(predecessor, node, idx++));
+        for (int idx = 0; idx < node.predecessorCount(); idx++) {
+            Node predecessor = node.predecessor(idx);
+            this.edges.add(new Edge(predecessor, node, idx));
             prepare(predecessor, seen);
         }
         if (node == this.graph.endBlock()) {
-            this.clusters.put(this.graph.endBlock(), Set.of());
+            cluster(this.graph.endBlock());
         }
     }
 
+    private List<Node> cluster(Block block) {
+        List<Node> cluster = this.clusters[block.id()];
+        if (cluster == null) {
+            cluster = new ArrayList<>();
+            this.clusters[block.id()] = cluster;
+        }
+        return cluster;
+    }
+
     private void print() {
         this.builder.append("digraph \"").append(this.graph.name()).append("\"").append("""
                                                                                                  {
@@ -56,7 +72,13 @@ public class GraphVizPrinter {
                                                                                                 
                                                                                                 """);
 
-        this.clusters.forEach((block, nodes) -> {
+        for (int blockId = 0; blockId < this.clusters.length; blockId++) {
+            List<Node> nodes = this.clusters[blockId];
+            if (nodes == null) {
+                continue;
+            }
+            // the block of a reachable node is reachable, so it wasn't removed
+            Node block = Objects.requireNonNull(this.graph.node(blockId), "removed block");
             this.builder.append("    subgraph cluster_").append(idFor(block)).append(" {\n").repeat(" ", 8).append("c_")
                     .append(idFor(block)).append(" [width=0, height=0, fixedsize=true, style=invis];\n");
             if (block == this.graph.endBlock()) {
@@ -64,13 +86,13 @@ public class GraphVizPrinter {
             }
             for (Node node : nodes) {
                 this.builder.repeat(" ", 8).append(idFor(node)).append(" [label=\"").append(labelFor(node)).append("\"");
-                if (node.debugInfo() instanceof DebugInfo.SourceInfo(Span span)) {
-                    this.builder.append(", tooltip=\"").append("source span: ").append(span).append("\"");
+                if (node.debugInfo() instanceof DebugInfo.SourceInfo(long span)) {
+                    this.builder.append(", tooltip=\"").append("source span: ").append(this.lineMap.span(span)).append("\"");
                 }
                 this.builder.append("];\n");
             }
             this.builder.append("    }\n\n");
-        });
+        }
 
         for (Edge edge : this.edges) {
             this.builder.repeat(" ", 4).append(nameFor(edge.from())).append(" -> ").append(nameFor(edge.to())).append(" [").append("label=")
@@ -91,7 +113,7 @@ public class GraphVizPrinter {
     }
 
     private int idFor(Node node) {
-        return this.ids.computeIfAbsent(node, _ -> this.counter++);
+        return node.id();
     }
 
     private String nameFor(Node node) {
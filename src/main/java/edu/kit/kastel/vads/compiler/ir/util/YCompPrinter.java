@@ -4,41 +4,54 @@ import edu.kit.kastel.vads.compiler.ir.IrGraph;
 import edu.kit.kastel.vads.compiler.ir.node.*;
 import edu.kit.kastel.vads.compiler.ir.node.ProjNode.SimpleProjectionInfo;
 
+import org.jspecify.annotations.Nullable;
+
 import java.util.*;
-import java.util.Map.Entry;
 import java.util.stream.IntStream;
 
+/// Outputs an [IrGraph] in the VCG format of yComp.
+/// Nodes are named by their [Node#id()].
 public class YCompPrinter {
 
-    private final Map<Block, Set<Node>> clusters = new HashMap<>();
-    private final Map<Node, Integer> ids = new HashMap<>();
+    // the nodes of each block, indexed by the id of the block
+    private final @Nullable List<Node>[] clusters;
     private final IrGraph graph;
-    private int nodeCounter = 0;
-    private int blockCounter = 0;
 
+    @SuppressWarnings("unchecked")
     public YCompPrinter(IrGraph graph) {
         this.graph = graph;
+        this.clusters = new List[graph.nodeCount()];
     }
 
-    private void prepare(Node node, Set<Node> seen) {
-        if (!seen.add(node)) {
+    private void prepare(Node node, BitSet seen) {
+        if (seen.get(node.id())) {
             return;
         }
+        seen.set(node.id());
 
         if (!(node instanceof Block)) {
-            this.clusters.computeIfAbsent(node.block(), _ -> Collections.newSetFromMap(new IdentityHashMap<>())).add(node);
+            cluster(node.block()).add(node);
         }
-        for (Node predecessor : node.predecessors()) {
-            prepare(predecessor, seen);
+        for (int i = 0; i < node.predecessorCount(); i++) {
+            prepare(node.predecessor(i), seen);
         }
         if (node == this.graph.endBlock()) {
-            this.clusters.put(this.graph.endBlock(), Set.of());
+            cluster(this.graph.endBlock());
+        }
+    }
+
+    private List<Node> cluster(Block block) {
+        List<Node> cluster = this.clusters[block.id()];
+        if (cluster == null) {
+            cluster = new ArrayList<>();
+            this.clusters[block.id()] = cluster;
         }
+        return cluster;
     }
 
     public static String print(IrGraph graph) {
         YCompPrinter printer = new YCompPrinter(graph);
-        printer.prepare(graph.endBlock(), new HashSet<>());
+        printer.prepare(graph.endBlock(), new BitSet(graph.nodeCount()));
         return printer.dumpGraphAsString();
     }
 
@@ -78,8 +91,13 @@ public class YCompPrinter {
         result.append("\n  label: ").append('"').append(name).append('"');
         result.append("\n  color: ").append(VcgColor.ROOT_BLOCK.id());
 
-        for (Entry<Block, Set<Node>> entry : this.clusters.entrySet()) {
-            result.append("\n").append(formatBlock(entry.getKey(), entry.getValue()).indent(2));
+        for (int blockId = 0; blockId < this.clusters.length; blockId++) {
+            List<Node> nodes = this.clusters[blockId];
+            if (nodes != null) {
+                // the block of a reachable node is reachable, so it wasn't removed
+                Block block = (Block) Objects.requireNonNull(this.graph.node(blockId), "removed block");
+                result.append("\n").append(formatBlock(block, nodes).indent(2));
+            }
         }
 
         result.append("}");
@@ -87,7 +105,7 @@ public class YCompPrinter {
         return result.toString();
     }
 
-    private String formatBlock(Block block, Set<Node> nodes) {
+    private String formatBlock(Block block, List<Node> nodes) {
         StringBuilder result = new StringBuilder("graph: {");
         result.append("\n  title: " + '"').append(nodeTitle(block)).append('"');
         result.append("\n  label: " + '"').append(nodeLabel(block)).append('"');
@@ -122,7 +140,7 @@ public class YCompPrinter {
     }
 
     private String formatInputEdges(Node node) {
-        var edges = IntStream.range(0, node.predecessors().size())
+        var edges = IntStream.range(0, node.predecessorCount())
                 .mapToObj(idx -> new Edge(node.predecessor(idx), node, idx, edgeColor(node.predecessor(idx), node))).toList();
         return formatEdges(edges, "\n  priority: 50");
     }
@@ -228,10 +246,7 @@ public class YCompPrinter {
     }
 
     private int idFor(Node node) {
-        if (node instanceof Block block) {
-            return this.ids.computeIfAbsent(block, _ -> this.blockCounter++);
-        }
-        return this.ids.computeIfAbsent(node, _ -> this.nodeCounter++);
+        return node.id();
     }
 
     private record Edge(Node src, Node dst, int index, Optional<VcgColor> color) {
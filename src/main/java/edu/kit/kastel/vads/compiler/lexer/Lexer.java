@@ -1,62 +1,239 @@
 package edu.kit.kastel.vads.compiler.lexer;
 
-import edu.kit.kastel.vads.compiler.Position;
+import edu.kit.kastel.vads.compiler.LineMap;
+import edu.kit.kastel.vads.compiler.PackedSpan;
 import edu.kit.kastel.vads.compiler.Span;
 import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
 import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
+import edu.kit.kastel.vads.compiler.parser.symbol.SymbolTable;
 import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Optional;
 
+/// Splits L1 source code into tokens.
+///
+/// L1 is ASCII, so the lexer works on the bytes of the UTF-8 encoded source without decoding them.
+/// Any non-ASCII character outside of comments results in an [ErrorToken].
+/// Identifiers are interned into the [SymbolTable] of the lexer as they are found.
 public class Lexer {
-    private final String source;
+    // keywords by the hash of their text, see keywordHash
+    private static final @Nullable KeywordType[] KEYWORDS = new KeywordType[64];
+
+    static {
+        for (KeywordType type : KeywordType.values()) {
+            String keyword = type.keyword();
+            int hash = keywordHash(keyword.length(), keyword.charAt(0), keyword.charAt(keyword.length() - 1));
+            if (KEYWORDS[hash] != null) {
+                throw new AssertionError("keyword hash is not perfect for " + keyword + " and " + KEYWORDS[hash]);
+            }
+            KEYWORDS[hash] = type;
+        }
+    }
+
+    private final ByteBuffer source;
+    private final LineMap lineMap;
+    private final SymbolTable symbols;
     private int pos;
-    private int lineStart;
-    private int line;
+    // the current token
+    private byte kind;
+    private int start;
+    private int end;
+    private int symbol;
+    private long value;
 
-    private Lexer(String source) {
+    private Lexer(ByteBuffer source) {
+        this(source, new LineMap(source), new SymbolTable(), 0);
+    }
+
+    private Lexer(ByteBuffer source, LineMap lineMap, SymbolTable symbols, int pos) {
         this.source = source;
+        this.lineMap = lineMap;
+        this.symbols = symbols;
+        this.pos = pos;
+    }
+
+    /// {@return a lexer for the same source that starts at `offset` and interns identifiers into `symbols`}
+    /// The state of a lexer between two tokens is only its offset,
+    /// so starting at the end of a token continues exactly like this lexer would.
+    Lexer fork(int offset, SymbolTable symbols) {
+        return new Lexer(this.source, this.lineMap, symbols, offset);
     }
 
     public static Lexer forString(String source) {
-        return new Lexer(source);
+        return new Lexer(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)));
     }
 
-    public Optional<Token> nextToken() {
-        ErrorToken error = skipWhitespace();
-        if (error != null) {
-            return Optional.of(error);
+    /// Lexes the UTF-8 encoded bytes between the position and the limit of `source`.
+    /// The buffer must not be modified while the lexer is in use.
+    public static Lexer forBuffer(ByteBuffer source) {
+        return new Lexer(source.slice());
+    }
+
+    /// Lexes a file, which is mapped into memory instead of being read.
+    /// The file must not be modified while the lexer is in use.
+    public static Lexer forPath(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new Lexer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
         }
-        if (this.pos >= this.source.length()) {
+    }
+
+    /// Lexes the next token and returns it as an object.
+    /// [#advance()] avoids creating the token object.
+    public Optional<Token> nextToken() {
+        if (!advance()) {
             return Optional.empty();
         }
-        Token t = switch (peek()) {
-            case '(' -> separator(SeparatorType.PAREN_OPEN);
-            case ')' -> separator(SeparatorType.PAREN_CLOSE);
-            case '{' -> separator(SeparatorType.BRACE_OPEN);
-            case '}' -> separator(SeparatorType.BRACE_CLOSE);
-            case ';' -> separator(SeparatorType.SEMICOLON);
+        return Optional.of(token());
+    }
+
+    /// Moves to the next token, whose properties are then available through the accessors of this lexer.
+    ///
+    /// @return false at the end of the input
+    public boolean advance() {
+        if (skipWhitespace()) {
+            return true;
+        }
+        if (this.pos >= this.source.limit()) {
+            return false;
+        }
+        switch (peek()) {
+            case '(' -> token(TokenKind.of(SeparatorType.PAREN_OPEN), 1);
+            case ')' -> token(TokenKind.of(SeparatorType.PAREN_CLOSE), 1);
+            case '{' -> token(TokenKind.of(SeparatorType.BRACE_OPEN), 1);
+            case '}' -> token(TokenKind.of(SeparatorType.BRACE_CLOSE), 1);
+            case ';' -> token(TokenKind.of(SeparatorType.SEMICOLON), 1);
             case '-' -> singleOrAssign(OperatorType.MINUS, OperatorType.ASSIGN_MINUS);
             case '+' -> singleOrAssign(OperatorType.PLUS, OperatorType.ASSIGN_PLUS);
             case '*' -> singleOrAssign(OperatorType.MUL, OperatorType.ASSIGN_MUL);
             case '/' -> singleOrAssign(OperatorType.DIV, OperatorType.ASSIGN_DIV);
             case '%' -> singleOrAssign(OperatorType.MOD, OperatorType.ASSIGN_MOD);
-            case '=' -> new Operator(OperatorType.ASSIGN, buildSpan(1));
+            case '=' -> token(TokenKind.of(OperatorType.ASSIGN), 1);
             default -> {
                 if (isIdentifierChar(peek())) {
                     if (isNumeric(peek())) {
-                        yield lexNumber();
+                        lexNumber();
+                    } else {
+                        lexIdentifierOrKeyword();
                     }
-                    yield lexIdentifierOrKeyword();
+                } else if (peek() >= 0x80) {
+                    nonAscii();
+                } else {
+                    token(TokenKind.ERROR, 1);
                 }
-                yield new ErrorToken(String.valueOf(peek()), buildSpan(1));
             }
-        };
+        }
+        return true;
+    }
+
+    /// {@return the [TokenKind] of the current token}
+    public byte kind() {
+        return this.kind;
+    }
+
+    /// {@return the offset of the first byte of the current token}
+    /// For [TokenKind#UNTERMINATED_COMMENT], this is the start of the comment.
+    public int start() {
+        return this.start;
+    }
+
+    /// {@return the offset after the last byte of the current token}
+    public int end() {
+        return this.end;
+    }
+
+    /// {@return the id of the current token in the [#symbols()] if it is an identifier}
+    public int symbol() {
+        return this.symbol;
+    }
+
+    /// {@return the value of the current token if it is a number literal, [NumberLiteral#OUT_OF_RANGE] if it is too large}
+    public long value() {
+        return this.value;
+    }
+
+    /// {@return the [PackedSpan] of the current token}
+    public long span() {
+        return span(this.kind, this.start, this.end);
+    }
 
-        return Optional.of(t);
+    /// {@return the number of bytes of the source}
+    public int length() {
+        return this.source.limit();
     }
 
-    private @Nullable ErrorToken skipWhitespace() {
+    /// Interns the identifier between the two offsets into the [#symbols()] of this lexer.
+    ///
+    /// @return the id of its name
+    int intern(int start, int end) {
+        return this.symbols.intern(this.source, start, end);
+    }
+
+    /// {@return the byte at `offset` of the source}
+    byte byteAt(int offset) {
+        return this.source.get(offset);
+    }
+
+    /// {@return the lines of the source, to resolve spans}
+    public LineMap lineMap() {
+        return this.lineMap;
+    }
+
+    /// {@return the identifiers found so far}
+    public SymbolTable symbols() {
+        return this.symbols;
+    }
+
+    /// {@return the current token as an object}
+    public Token token() {
+        return token(this.kind, this.start, this.end);
+    }
+
+    /// {@return the token with the given properties, as returned by the accessors of this lexer}
+    public Token token(byte kind, int start, int end) {
+        Span span = this.lineMap.span(span(kind, start, end));
+        if (kind == TokenKind.IDENTIFIER) {
+            return new Identifier(text(start, end), span);
+        } else if (kind == TokenKind.DECIMAL_LITERAL) {
+            return new NumberLiteral(text(start, end), 10, span);
+        } else if (kind == TokenKind.HEX_LITERAL) {
+            return new NumberLiteral(text(start, end), 16, span);
+        } else if (TokenKind.isOperator(kind)) {
+            return new Operator(TokenKind.operatorType(kind), span);
+        } else if (TokenKind.isSeparator(kind)) {
+            return new Separator(TokenKind.separatorType(kind), span);
+        } else if (TokenKind.isKeyword(kind)) {
+            return new Keyword(TokenKind.keywordType(kind), span);
+        }
+        return new ErrorToken(text(start, end), span);
+    }
+
+    /// {@return the [PackedSpan] of a token with the given properties}
+    public static long span(byte kind, int start, int end) {
+        if (kind == TokenKind.UNTERMINATED_COMMENT) {
+            // reported at the end of the input
+            return PackedSpan.of(end, end);
+        }
+        return PackedSpan.of(start, end);
+    }
+
+    /// {@return the source text between the two offsets}
+    public String text(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        this.source.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /// Skips whitespace and comments.
+    ///
+    /// @return true if an unterminated comment was found, which is then the current token
+    private boolean skipWhitespace() {
         enum CommentType {
             SINGLE_LINE, MULTI_LINE
         }
@@ -68,8 +245,6 @@ public class Lexer {
                 case ' ', '\t' -> this.pos++;
                 case '\n', '\r' -> {
                     this.pos++;
-                    this.lineStart = this.pos;
-                    this.line++;
                     if (currentCommentType == CommentType.SINGLE_LINE) {
                         currentCommentType = null;
                     }
@@ -89,7 +264,7 @@ public class Lexer {
                             this.pos++;
                             continue;
                         } else {
-                            return null;
+                            return false;
                         }
                         commentStart = this.pos;
                         this.pos += 2;
@@ -100,7 +275,7 @@ public class Lexer {
                         this.pos++;
                         continue;
                     }
-                    return null;
+                    return false;
                 }
                 default -> {
                     if (currentCommentType == CommentType.MULTI_LINE) {
@@ -116,56 +291,100 @@ public class Lexer {
                         this.pos++;
                         continue;
                     }
-                    return null;
+                    return false;
                 }
             }
         }
         if (!hasMore(0) && currentCommentType == CommentType.MULTI_LINE) {
-            return new ErrorToken(this.source.substring(commentStart), buildSpan(0));
+            token(TokenKind.UNTERMINATED_COMMENT, 0);
+            this.start = commentStart;
+            this.end = this.source.limit();
+            return true;
         }
-        return null;
-    }
-
-    private Separator separator(SeparatorType parenOpen) {
-        return new Separator(parenOpen, buildSpan(1));
+        return false;
     }
 
-    private Token lexIdentifierOrKeyword() {
+    private void lexIdentifierOrKeyword() {
         int off = 1;
         while (hasMore(off) && isIdentifierChar(peek(off))) {
             off++;
         }
-        String id = this.source.substring(this.pos, this.pos + off);
-        // This is a naive solution. Using a better data structure (hashmap, trie) likely performs better.
-        for (KeywordType value : KeywordType.values()) {
-            if (value.keyword().equals(id)) {
-                return new Keyword(value, buildSpan(off));
+        KeywordType keyword = KEYWORDS[keywordHash(off, peek(), peek(off - 1))];
+        if (keyword != null && matches(keyword.keyword(), off)) {
+            token(TokenKind.of(keyword), off);
+        } else {
+            this.symbol = this.symbols.intern(this.source, this.pos, this.pos + off);
+            token(TokenKind.IDENTIFIER, off);
+        }
+    }
+
+    /// A perfect hash of the keywords: no two of them have the same hash.
+    /// Other words may share the hash of a keyword, so a match still has to be compared.
+    private static int keywordHash(int length, char first, char last) {
+        return (length * 5 + first * 2 + last) & 63;
+    }
+
+    private boolean matches(String text, int length) {
+        if (text.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (peek(i) != text.charAt(i)) {
+                return false;
             }
         }
-        return new Identifier(id, buildSpan(off));
+        return true;
     }
 
-    private Token lexNumber() {
+    /// Lexes a number literal and computes its value on the way, so it never has to be parsed from its text.
+    private void lexNumber() {
         if (isHexPrefix()) {
             int off = 2;
+            long value = 0;
             while (hasMore(off) && isHex(peek(off))) {
+                value = appendDigit(value, Character.digit(peek(off), 16), 16, 0xFFFF_FFFFL);
                 off++;
             }
             if (off == 2) {
                 // 0x without any further hex digits
-                return new ErrorToken(this.source.substring(this.pos, this.pos + off), buildSpan(2));
+                token(TokenKind.ERROR, 2);
+                return;
             }
-            return new NumberLiteral(this.source.substring(this.pos, this.pos + off), 16, buildSpan(off));
+            this.value = value;
+            token(TokenKind.HEX_LITERAL, off);
+            return;
         }
         int off = 1;
+        long value = peek() - '0';
         while (hasMore(off) && isNumeric(peek(off))) {
+            value = appendDigit(value, peek(off) - '0', 10, 1L << 31);
             off++;
         }
         if (peek() == '0' && off > 1) {
             // leading zero is not allowed
-            return new ErrorToken(this.source.substring(this.pos, this.pos + off), buildSpan(off));
+            token(TokenKind.ERROR, off);
+            return;
+        }
+        this.value = value;
+        token(TokenKind.DECIMAL_LITERAL, off);
+    }
+
+    private static long appendDigit(long value, int digit, int base, long max) {
+        if (value == NumberLiteral.OUT_OF_RANGE) {
+            return value;
+        }
+        // value is at most max, so this does not overflow
+        long next = value * base + digit;
+        return next > max ? NumberLiteral.OUT_OF_RANGE : next;
+    }
+
+    /// Reports a whole UTF-8 encoded character, instead of each of its bytes.
+    private void nonAscii() {
+        int length = 1;
+        while (hasMore(length) && length < 4 && (peek(length) & 0xC0) == 0x80) {
+            length++;
         }
-        return new NumberLiteral(this.source.substring(this.pos, this.pos + off), 10, buildSpan(off));
+        token(TokenKind.ERROR, length);
     }
 
     private boolean isHexPrefix() {
@@ -184,31 +403,31 @@ public class Lexer {
         return isNumeric(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
     }
 
-    private Token singleOrAssign(OperatorType single, OperatorType assign) {
+    private void singleOrAssign(OperatorType single, OperatorType assign) {
         if (hasMore(1) && peek(1) == '=') {
-            return new Operator(assign, buildSpan(2));
+            token(TokenKind.of(assign), 2);
+        } else {
+            token(TokenKind.of(single), 1);
         }
-        return new Operator(single, buildSpan(1));
     }
 
-    private Span buildSpan(int proceed) {
-        int start = this.pos;
+    private void token(byte kind, int proceed) {
+        this.kind = kind;
+        this.start = this.pos;
+        this.end = this.pos + proceed;
         this.pos += proceed;
-        Position.SimplePosition s = new Position.SimplePosition(this.line, start - this.lineStart);
-        Position.SimplePosition e = new Position.SimplePosition(this.line, start - this.lineStart + proceed);
-        return new Span.SimpleSpan(s, e);
     }
 
     private char peek() {
-        return this.source.charAt(this.pos);
+        return (char) (this.source.get(this.pos) & 0xFF);
     }
 
     private boolean hasMore(int offset) {
-        return this.pos + offset < this.source.length();
+        return this.pos + offset < this.source.limit();
     }
 
     private char peek(int offset) {
-        return this.source.charAt(this.pos + offset);
+        return (char) (this.source.get(this.pos + offset) & 0xFF);
     }
 
 }
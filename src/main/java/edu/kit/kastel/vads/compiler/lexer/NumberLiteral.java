@@ -3,6 +3,11 @@ package edu.kit.kastel.vads.compiler.lexer;
 import edu.kit.kastel.vads.compiler.Span;
 
 public record NumberLiteral(String value, int base, Span span) implements Token {
+    /// The value of a literal that is too large for an `int`:
+    /// decimal literals may be at most `2^31`, the absolute value of the smallest `int`,
+    /// and hexadecimal literals at most `0xFFFFFFFF`.
+    public static final long OUT_OF_RANGE = -1;
+
     @Override
     public String asString() {
         return value();
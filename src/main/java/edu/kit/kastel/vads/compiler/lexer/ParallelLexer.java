@@ -0,0 +1,135 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import edu.kit.kastel.vads.compiler.parser.symbol.SymbolTable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/// Lexes a large source in chunks, in parallel.
+///
+/// The source is split into chunks at line breaks, and each chunk is lexed by its own [Lexer] on the common fork/join pool.
+/// This speculates that the lexer is not inside a token or comment at the start of a chunk.
+/// Tokens never contain a line break and line comments end at one,
+/// so the speculation only fails for a multi-line comment that spans the start of a chunk.
+///
+/// The chunks are then joined in order. The state of a lexer between two tokens is only its offset,
+/// so once lexing sequentially from the end of the joined tokens reaches the end of a token of the next chunk,
+/// both agree from there on and the remaining tokens of the chunk are taken over.
+/// Usually that is the first token of the chunk, otherwise the chunk is re-lexed up to that point.
+/// Identifiers are interned into the [SymbolTable] of the original lexer while joining, in order,
+/// so the tokens and the ids of their names are the same as with [TokenStore#lexAll(Lexer)].
+public final class ParallelLexer {
+    private final Lexer lexer;
+    private final TokenStore tokens;
+    // the end of the last joined token, where sequential lexing continues
+    private int offset;
+    private boolean exhausted;
+
+    private ParallelLexer(Lexer lexer, int capacity) {
+        this.lexer = lexer;
+        this.tokens = new TokenStore(lexer, capacity);
+    }
+
+    /// {@return a store with all tokens of `lexer`, which must not have been advanced yet}
+    ///
+    /// @param chunks the number of chunks to split the source into, fewer if it has fewer lines
+    public static TokenStore lexAll(Lexer lexer, int chunks) {
+        int[] bounds = split(lexer, chunks);
+        List<Chunk> lexed = IntStream.range(0, bounds.length - 1).parallel()
+                .mapToObj(i -> Chunk.lex(lexer, bounds[i], bounds[i + 1]))
+                .toList();
+        ParallelLexer joiner = new ParallelLexer(lexer, lexed.stream().mapToInt(Chunk::count).sum());
+        for (int i = 0; i < lexed.size() && !joiner.exhausted; i++) {
+            joiner.join(lexed.get(i), i == 0);
+        }
+        joiner.tokens.finish();
+        return joiner.tokens;
+    }
+
+    /// {@return the offsets at which the chunks start, followed by the length of the source}
+    private static int[] split(Lexer lexer, int chunks) {
+        int length = lexer.length();
+        int[] bounds = new int[chunks + 1];
+        int count = 1;
+        for (int i = 1; i < chunks; i++) {
+            int offset = Math.max((int) ((long) length * i / chunks), bounds[count - 1]);
+            while (offset < length && lexer.byteAt(offset) != '\n') {
+                offset++;
+            }
+            // start after the line break
+            offset++;
+            if (offset < length) {
+                bounds[count++] = offset;
+            }
+        }
+        bounds[count++] = length;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private void join(Chunk chunk, boolean first) {
+        // the first chunk starts at the start of the source, so its speculation holds
+        int next = first ? 0 : synchronize(chunk);
+        for (int i = next; i < chunk.count(); i++) {
+            TokenStore chunkTokens = chunk.tokens();
+            byte kind = chunkTokens.kind(i);
+            int start = chunkTokens.start(i);
+            int end = chunkTokens.end(i);
+            long value = kind == TokenKind.IDENTIFIER ? chunk.symbol(this.lexer, chunkTokens.symbol(i), start, end)
+                    : chunkTokens.value(i);
+            this.tokens.append(kind, start, end, value);
+            this.offset = end;
+        }
+    }
+
+    /// Lexes sequentially from the end of the joined tokens until it reaches the end of a token of `chunk`.
+    ///
+    /// @return the index of the token of `chunk` after that,
+    /// or [Chunk#count()] if the end of the chunk was reached first
+    private int synchronize(Chunk chunk) {
+        Lexer sequential = this.lexer.fork(this.offset, this.lexer.symbols());
+        int candidate = 0;
+        while (sequential.advance()) {
+            if (sequential.start() >= chunk.end()) {
+                // the token belongs to the next chunk, which synchronizes again from here
+                return chunk.count();
+            }
+            this.tokens.append(sequential);
+            this.offset = sequential.end();
+            while (candidate < chunk.count() && chunk.tokens().end(candidate) < this.offset) {
+                candidate++;
+            }
+            if (candidate < chunk.count() && chunk.tokens().end(candidate) == this.offset) {
+                return candidate + 1;
+            }
+        }
+        this.exhausted = true;
+        return chunk.count();
+    }
+
+    /// The tokens lexed speculatively from `start` to `end`, with identifiers interned into their own table.
+    ///
+    /// @param count the number of tokens that start before `end`
+    /// @param symbols for each id of the own table of the chunk, the id in the table of the original lexer plus one
+    private record Chunk(TokenStore tokens, int end, int count, int[] symbols) {
+
+        static Chunk lex(Lexer lexer, int start, int end) {
+            SymbolTable symbols = new SymbolTable();
+            TokenStore tokens = new TokenStore(lexer.fork(start, symbols), 1024);
+            // the last token may start after the end, it is not part of the chunk then
+            while (tokens.lexNext()) {
+                if (tokens.start(tokens.limit() - 1) >= end) {
+                    return new Chunk(tokens, end, tokens.limit() - 1, new int[symbols.size()]);
+                }
+            }
+            return new Chunk(tokens, end, tokens.limit(), new int[symbols.size()]);
+        }
+
+        int symbol(Lexer lexer, int id, int start, int end) {
+            if (this.symbols[id] == 0) {
+                this.symbols[id] = lexer.intern(start, end) + 1;
+            }
+            return this.symbols[id] - 1;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
+
+/// The kind of a token, encoded in a single byte.
+/// Operators, separators and keywords have one kind per type.
+public final class TokenKind {
+    public static final byte ERROR = 0;
+    /// An error token whose value is an unterminated comment, and whose span is the empty end of the input.
+    public static final byte UNTERMINATED_COMMENT = 1;
+    public static final byte IDENTIFIER = 2;
+    public static final byte DECIMAL_LITERAL = 3;
+    public static final byte HEX_LITERAL = 4;
+
+    private static final int OPERATOR = 0x20;
+    private static final int SEPARATOR = 0x40;
+    private static final int KEYWORD = 0x60;
+    private static final int GROUP = 0x20;
+
+    private static final OperatorType[] OPERATORS = OperatorType.values();
+    private static final SeparatorType[] SEPARATORS = SeparatorType.values();
+    private static final KeywordType[] KEYWORDS = KeywordType.values();
+
+    private TokenKind() {
+
+    }
+
+    public static byte of(OperatorType type) {
+        return (byte) (OPERATOR + type.ordinal());
+    }
+
+    public static byte of(SeparatorType type) {
+        return (byte) (SEPARATOR + type.ordinal());
+    }
+
+    public static byte of(KeywordType type) {
+        return (byte) (KEYWORD + type.ordinal());
+    }
+
+    public static boolean isError(byte kind) {
+        return kind == ERROR || kind == UNTERMINATED_COMMENT;
+    }
+
+    public static boolean isNumberLiteral(byte kind) {
+        return kind == DECIMAL_LITERAL || kind == HEX_LITERAL;
+    }
+
+    public static boolean isOperator(byte kind) {
+        return kind >= OPERATOR && kind < OPERATOR + GROUP;
+    }
+
+    public static boolean isSeparator(byte kind) {
+        return kind >= SEPARATOR && kind < SEPARATOR + GROUP;
+    }
+
+    public static boolean isKeyword(byte kind) {
+        return kind >= KEYWORD && kind < KEYWORD + GROUP;
+    }
+
+    /// {@return the operator type of an operator kind}
+    public static OperatorType operatorType(byte kind) {
+        return OPERATORS[kind - OPERATOR];
+    }
+
+    /// {@return the separator type of a separator kind}
+    public static SeparatorType separatorType(byte kind) {
+        return SEPARATORS[kind - SEPARATOR];
+    }
+
+    /// {@return the keyword type of a keyword kind}
+    public static KeywordType keywordType(byte kind) {
+        return KEYWORDS[kind - KEYWORD];
+    }
+}
@@ -0,0 +1,172 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+
+/// Tokens stored as a struct of arrays, instead of as one object per token.
+///
+/// Tokens are addressed by their index in the token stream of the [Lexer].
+/// The store is a growable ring buffer: tokens are appended by [#lexNext()],
+/// and tokens that are no longer needed can be dropped from the front by [#discardBefore(int)].
+/// Identifiers are stored as the id of their interned [Name], and number literals with their value.
+/// Their text only refers to the source by their offsets and is created on demand,
+/// and lines and columns are only computed by the [Lexer#lineMap()] for error messages.
+public final class TokenStore {
+    private final Lexer lexer;
+    private byte[] kinds;
+    private int[] starts;
+    private int[] ends;
+    // the symbol of identifiers, the value of number literals
+    private long[] values;
+    // index of the oldest stored token
+    private int first;
+    private int count;
+    private boolean exhausted;
+
+    /// Creates an empty store, rounding `capacity` up to a power of two.
+    public TokenStore(Lexer lexer, int capacity) {
+        this.lexer = lexer;
+        allocate(Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+    }
+
+    /// {@return a store with all tokens of `lexer`}
+    public static TokenStore lexAll(Lexer lexer) {
+        TokenStore store = new TokenStore(lexer, 1024);
+        while (store.lexNext()) {
+            // keep going
+        }
+        return store;
+    }
+
+    /// Lexes the next token and appends it.
+    ///
+    /// @return false at the end of the input
+    public boolean lexNext() {
+        if (this.exhausted || !this.lexer.advance()) {
+            this.exhausted = true;
+            return false;
+        }
+        append(this.lexer);
+        return true;
+    }
+
+    /// Appends the current token of `lexer`, which may be another lexer for the same source.
+    void append(Lexer lexer) {
+        byte kind = lexer.kind();
+        append(kind, lexer.start(), lexer.end(), TokenKind.isNumberLiteral(kind) ? lexer.value() : lexer.symbol());
+    }
+
+    /// Appends a token that was lexed elsewhere, e.g. by the [ParallelLexer].
+    ///
+    /// @param value the id of the name of an identifier, the value of a number literal
+    void append(byte kind, int start, int end, long value) {
+        if (this.count == this.kinds.length) {
+            grow();
+        }
+        int slot = slot(this.first + this.count);
+        this.kinds[slot] = kind;
+        this.starts[slot] = start;
+        this.ends[slot] = end;
+        this.values[slot] = value;
+        this.count++;
+    }
+
+    /// Marks the end of the input, so [#lexNext()] doesn't ask the lexer for more tokens.
+    void finish() {
+        this.exhausted = true;
+    }
+
+    /// {@return the index after the last stored token}
+    public int limit() {
+        return this.first + this.count;
+    }
+
+    /// Drops all tokens before `index`.
+    public void discardBefore(int index) {
+        int discarded = Math.min(index - this.first, this.count);
+        if (discarded > 0) {
+            this.first += discarded;
+            this.count -= discarded;
+        }
+    }
+
+    /// {@return the [TokenKind] of the token at `index`}
+    public byte kind(int index) {
+        return this.kinds[checkedSlot(index)];
+    }
+
+    /// {@return the [edu.kit.kastel.vads.compiler.PackedSpan] of the token at `index`}
+    public long span(int index) {
+        int slot = checkedSlot(index);
+        return Lexer.span(this.kinds[slot], this.starts[slot], this.ends[slot]);
+    }
+
+    /// {@return the source text of the token at `index`}
+    public String text(int index) {
+        int slot = checkedSlot(index);
+        return this.lexer.text(this.starts[slot], this.ends[slot]);
+    }
+
+    /// {@return the name of the identifier at `index`}
+    public Name name(int index) {
+        return this.lexer.symbols().name(symbol(index));
+    }
+
+    /// {@return the id of the name of the identifier at `index`}
+    int symbol(int index) {
+        return (int) this.values[checkedSlot(index)];
+    }
+
+    /// {@return the value of the number literal at `index`, [NumberLiteral#OUT_OF_RANGE] if it is too large}
+    public long value(int index) {
+        return this.values[checkedSlot(index)];
+    }
+
+    int start(int index) {
+        return this.starts[checkedSlot(index)];
+    }
+
+    int end(int index) {
+        return this.ends[checkedSlot(index)];
+    }
+
+    /// {@return the token at `index` as an object}
+    public Token token(int index) {
+        int slot = checkedSlot(index);
+        return this.lexer.token(this.kinds[slot], this.starts[slot], this.ends[slot]);
+    }
+
+    private int checkedSlot(int index) {
+        if (index < this.first || index >= this.first + this.count) {
+            throw new IndexOutOfBoundsException("token " + index + " is not stored");
+        }
+        return slot(index);
+    }
+
+    private int slot(int index) {
+        return index & (this.kinds.length - 1);
+    }
+
+    private void grow() {
+        byte[] oldKinds = this.kinds;
+        int[] oldStarts = this.starts;
+        int[] oldEnds = this.ends;
+        long[] oldValues = this.values;
+        int oldMask = oldKinds.length - 1;
+        allocate(oldKinds.length * 2);
+        for (int index = this.first; index < this.first + this.count; index++) {
+            int from = index & oldMask;
+            int to = slot(index);
+            this.kinds[to] = oldKinds[from];
+            this.starts[to] = oldStarts[from];
+            this.ends[to] = oldEnds[from];
+            this.values[to] = oldValues[from];
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.kinds = new byte[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.values = new long[capacity];
+    }
+}
@@ -1,18 +1,22 @@
 package edu.kit.kastel.vads.compiler.parser;
 
-import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.PackedSpan;
 import edu.kit.kastel.vads.compiler.lexer.*;
 import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
 import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
 import edu.kit.kastel.vads.compiler.parser.ast.*;
-import edu.kit.kastel.vads.compiler.parser.symbol.Name;
 import edu.kit.kastel.vads.compiler.parser.type.BasicType;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 public class Parser {
     private final TokenSource tokenSource;
+    // the stacks of parseExpression
+    private final List<ExpressionTree> operands = new ArrayList<>();
+    private final Deque<PendingOperator> operators = new ArrayDeque<>();
 
     public Parser(TokenSource tokenSource) {
         this.tokenSource = tokenSource;
@@ -27,32 +31,32 @@ public class Parser {
     }
 
     private FunctionTree parseFunction() {
-        Keyword returnType = this.tokenSource.expectKeyword(KeywordType.INT);
-        Identifier identifier = this.tokenSource.expectIdentifier();
-        if (!identifier.value().equals("main")) {
-            throw new ParseException("expected main function but got " + identifier);
+        long returnType = this.tokenSource.expectKeyword(KeywordType.INT);
+        if (this.tokenSource.isIdentifier() && !this.tokenSource.peekText().equals("main")) {
+            throw new ParseException("expected main function but got " + this.tokenSource.peek());
         }
+        NameTree name = parseName();
         this.tokenSource.expectSeparator(SeparatorType.PAREN_OPEN);
         this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
         BlockTree body = parseBlock();
-        return new FunctionTree(new TypeTree(BasicType.INT, returnType.span()), name(identifier), body);
+        return new FunctionTree(new TypeTree(BasicType.INT, returnType), name, body);
     }
 
     private BlockTree parseBlock() {
-        Separator bodyOpen = this.tokenSource.expectSeparator(SeparatorType.BRACE_OPEN);
+        long bodyOpen = this.tokenSource.expectSeparator(SeparatorType.BRACE_OPEN);
         List<StatementTree> statements = new ArrayList<>();
-        while (!(this.tokenSource.peek() instanceof Separator sep && sep.type() == SeparatorType.BRACE_CLOSE)) {
+        while (!this.tokenSource.isSeparator(SeparatorType.BRACE_CLOSE)) {
             statements.add(parseStatement());
         }
-        Separator bodyClose = this.tokenSource.expectSeparator(SeparatorType.BRACE_CLOSE);
-        return new BlockTree(statements, bodyOpen.span().merge(bodyClose.span()));
+        long bodyClose = this.tokenSource.expectSeparator(SeparatorType.BRACE_CLOSE);
+        return new BlockTree(statements, PackedSpan.merge(bodyOpen, bodyClose));
     }
 
     private StatementTree parseStatement() {
         StatementTree statement;
-        if (this.tokenSource.peek().isKeyword(KeywordType.INT)) {
+        if (this.tokenSource.isKeyword(KeywordType.INT)) {
             statement = parseDeclaration();
-        } else if (this.tokenSource.peek().isKeyword(KeywordType.RETURN)) {
+        } else if (this.tokenSource.isKeyword(KeywordType.RETURN)) {
             statement = parseReturn();
         } else {
             statement = parseSimple();
@@ -62,106 +66,164 @@ public class Parser {
     }
 
     private StatementTree parseDeclaration() {
-        Keyword type = this.tokenSource.expectKeyword(KeywordType.INT);
-        Identifier ident = this.tokenSource.expectIdentifier();
+        long type = this.tokenSource.expectKeyword(KeywordType.INT);
+        NameTree name = parseName();
         ExpressionTree expr = null;
-        if (this.tokenSource.peek().isOperator(OperatorType.ASSIGN)) {
+        if (this.tokenSource.isOperator(OperatorType.ASSIGN)) {
             this.tokenSource.expectOperator(OperatorType.ASSIGN);
             expr = parseExpression();
         }
-        return new DeclarationTree(new TypeTree(BasicType.INT, type.span()), name(ident), expr);
+        return new DeclarationTree(new TypeTree(BasicType.INT, type), name, expr);
     }
 
     private StatementTree parseSimple() {
         LValueTree lValue = parseLValue();
-        Operator assignmentOperator = parseAssignmentOperator();
+        OperatorType assignmentOperator = parseAssignmentOperator();
         ExpressionTree expression = parseExpression();
         return new AssignmentTree(lValue, assignmentOperator, expression);
     }
 
-    private Operator parseAssignmentOperator() {
-        if (this.tokenSource.peek() instanceof Operator op) {
-            return switch (op.type()) {
+    private OperatorType parseAssignmentOperator() {
+        OperatorType type = this.tokenSource.peekOperator();
+        if (type != null) {
+            return switch (type) {
                 case ASSIGN, ASSIGN_DIV, ASSIGN_MINUS, ASSIGN_MOD, ASSIGN_MUL, ASSIGN_PLUS -> {
                     this.tokenSource.consume();
-                    yield op;
+                    yield type;
                 }
-                default -> throw new ParseException("expected assignment but got " + op.type());
+                default -> throw new ParseException("expected assignment but got " + type);
             };
         }
         throw new ParseException("expected assignment but got " + this.tokenSource.peek());
     }
 
     private LValueTree parseLValue() {
-        if (this.tokenSource.peek().isSeparator(SeparatorType.PAREN_OPEN)) {
-            this.tokenSource.expectSeparator(SeparatorType.PAREN_OPEN);
-            LValueTree inner = parseLValue();
+        // parentheses around an lvalue don't change it, so they are only counted
+        int parentheses = 0;
+        while (this.tokenSource.isSeparator(SeparatorType.PAREN_OPEN)) {
+            this.tokenSource.consume();
+            parentheses++;
+        }
+        LValueTree lValue = new LValueIdentTree(parseName());
+        for (int i = 0; i < parentheses; i++) {
             this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
-            return inner;
         }
-        Identifier identifier = this.tokenSource.expectIdentifier();
-        return new LValueIdentTree(name(identifier));
+        return lValue;
     }
 
     private StatementTree parseReturn() {
-        Keyword ret = this.tokenSource.expectKeyword(KeywordType.RETURN);
+        long ret = this.tokenSource.expectKeyword(KeywordType.RETURN);
         ExpressionTree expression = parseExpression();
-        return new ReturnTree(expression, ret.span().start());
+        return new ReturnTree(expression, PackedSpan.start(ret));
     }
 
+    /// Parses an expression by precedence climbing.
+    ///
+    /// Instead of recursing for every parenthesis, unary minus and precedence level,
+    /// pending operators and operands are kept on explicit stacks.
+    /// This way, the nesting depth of an expression is not limited by the size of the thread stack.
+    /// The trees are the same a recursive descent parser would build:
+    /// binary operators are left-associative, `*`, `/` and `%` bind stronger than `+` and `-`,
+    /// and a unary minus only applies to the factor directly after it.
     private ExpressionTree parseExpression() {
-        ExpressionTree lhs = parseTerm();
+        int operandBase = this.operands.size();
+        int operatorBase = this.operators.size();
+        int openParentheses = 0;
         while (true) {
-            if (this.tokenSource.peek() instanceof Operator(
-                    var type, _
-            ) && (type == OperatorType.PLUS || type == OperatorType.MINUS)) {
+            // a factor, possibly preceded by unary minuses and opening parentheses
+            byte kind = this.tokenSource.peekKind();
+            if (kind == TokenKind.of(SeparatorType.PAREN_OPEN)) {
                 this.tokenSource.consume();
-                lhs = new BinaryOperationTree(lhs, parseTerm(), type);
-            } else {
-                return lhs;
+                this.operators.push(PendingOperator.PARENTHESIS);
+                openParentheses++;
+                continue;
+            } else if (kind == TokenKind.of(OperatorType.MINUS)) {
+                this.operators.push(new PendingOperator.Negate(this.tokenSource.consume()));
+                continue;
+            }
+            this.operands.add(parsePrimary(kind));
+            reduceNegations();
+            // binary operators and closing parentheses after the factor
+            while (true) {
+                OperatorType type = this.tokenSource.peekOperator();
+                if (type != null && precedence(type) > 0) {
+                    this.tokenSource.consume();
+                    reduceBinaryOperations(operatorBase, precedence(type));
+                    this.operators.push(new PendingOperator.Binary(type));
+                    break;
+                } else if (openParentheses > 0) {
+                    this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
+                    reduceBinaryOperations(operatorBase, 0);
+                    this.operators.pop();
+                    openParentheses--;
+                    reduceNegations();
+                } else {
+                    reduceBinaryOperations(operatorBase, 0);
+                    assert this.operands.size() == operandBase + 1 && this.operators.size() == operatorBase;
+                    return this.operands.removeLast();
+                }
             }
         }
     }
 
-    private ExpressionTree parseTerm() {
-        ExpressionTree lhs = parseFactor();
-        while (true) {
-            if (this.tokenSource.peek() instanceof Operator(
-                    var type, _
-            ) && (type == OperatorType.MUL || type == OperatorType.DIV || type == OperatorType.MOD)) {
-                this.tokenSource.consume();
-                lhs = new BinaryOperationTree(lhs, parseFactor(), type);
-            } else {
-                return lhs;
-            }
+    private ExpressionTree parsePrimary(byte kind) {
+        if (kind == TokenKind.IDENTIFIER) {
+            return new IdentExpressionTree(parseName());
+        } else if (TokenKind.isNumberLiteral(kind)) {
+            String value = this.tokenSource.peekText();
+            long numericValue = this.tokenSource.peekValue();
+            long span = this.tokenSource.consume();
+            return new LiteralTree(value, kind == TokenKind.HEX_LITERAL ? 16 : 10, numericValue, span);
         }
+        throw new ParseException("invalid factor " + this.tokenSource.peek());
     }
 
-    private ExpressionTree parseFactor() {
-        return switch (this.tokenSource.peek()) {
-            case Separator(var type, _) when type == SeparatorType.PAREN_OPEN -> {
-                this.tokenSource.consume();
-                ExpressionTree expression = parseExpression();
-                this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
-                yield expression;
-            }
-            case Operator(var type, _) when type == OperatorType.MINUS -> {
-                Span span = this.tokenSource.consume().span();
-                yield new NegateTree(parseFactor(), span);
-            }
-            case Identifier ident -> {
-                this.tokenSource.consume();
-                yield new IdentExpressionTree(name(ident));
-            }
-            case NumberLiteral(String value, int base, Span span) -> {
-                this.tokenSource.consume();
-                yield new LiteralTree(value, base, span);
-            }
-            case Token t -> throw new ParseException("invalid factor " + t);
+    /// Applies the unary minuses directly before the operand on top of the stack.
+    private void reduceNegations() {
+        while (this.operators.peek() instanceof PendingOperator.Negate(long minusPos)) {
+            this.operators.pop();
+            this.operands.add(new NegateTree(this.operands.removeLast(), minusPos));
+        }
+    }
+
+    /// Combines the operands on top of the stack as long as the pending binary operators
+    /// bind at least as strong as `precedence`.
+    /// Stops at the first opening parenthesis, or at `operatorBase`.
+    private void reduceBinaryOperations(int operatorBase, int precedence) {
+        while (this.operators.size() > operatorBase
+                && this.operators.peek() instanceof PendingOperator.Binary(OperatorType type)
+                && precedence(type) >= precedence) {
+            this.operators.pop();
+            ExpressionTree rhs = this.operands.removeLast();
+            ExpressionTree lhs = this.operands.removeLast();
+            this.operands.add(new BinaryOperationTree(lhs, rhs, type));
+        }
+    }
+
+    /// {@return how strong a binary operator binds, or `0` if it is no binary operator}
+    private static int precedence(OperatorType type) {
+        return switch (type) {
+            case MUL, DIV, MOD -> 2;
+            case PLUS, MINUS -> 1;
+            default -> 0;
         };
     }
 
-    private static NameTree name(Identifier ident) {
-        return new NameTree(Name.forIdentifier(ident), ident.span());
+    private NameTree parseName() {
+        long span = this.tokenSource.peekSpan();
+        return new NameTree(this.tokenSource.expectIdentifier(), span);
+    }
+
+    private sealed interface PendingOperator {
+        PendingOperator PARENTHESIS = new Parenthesis();
+
+        record Parenthesis() implements PendingOperator {
+        }
+
+        record Negate(long minusPos) implements PendingOperator {
+        }
+
+        record Binary(OperatorType type) implements PendingOperator {
+        }
     }
 }
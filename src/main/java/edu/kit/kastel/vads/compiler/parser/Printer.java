@@ -54,7 +54,7 @@ public class Printer {
                 }
             }
             case TypeTree(var type, _) -> print(type.asString());
-            case BinaryOperationTree(var lhs, var rhs, var op) -> {
+            case BinaryOperationTree(var lhs, var rhs, var op, _) -> {
                 print("(");
                 printTree(lhs);
                 print(")");
@@ -65,8 +65,8 @@ public class Printer {
                 printTree(rhs);
                 print(")");
             }
-            case LiteralTree(var value, _, _) -> this.builder.append(value);
-            case NegateTree(var expression, _) -> {
+            case LiteralTree(var value, _, _, _) -> this.builder.append(value);
+            case NegateTree(var expression, _, _) -> {
                 print("-(");
                 printTree(expression);
                 print(")");
@@ -1,79 +1,163 @@
 package edu.kit.kastel.vads.compiler.parser;
 
+import edu.kit.kastel.vads.compiler.PackedSpan;
 import edu.kit.kastel.vads.compiler.lexer.*;
 import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
 import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import org.jspecify.annotations.Nullable;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Stream;
-
+/// The tokens of a program, as seen by the [Parser].
+///
+/// Tokens are pulled from the lexer only when they are looked at,
+/// and only the few tokens of lookahead are kept in a small [TokenStore].
+/// That way, lexing and parsing interleave, and the memory used does not grow with the length of the input.
+///
+/// Tokens are inspected through their kind, span and text. [Token] objects are only created for error messages.
 public class TokenSource {
-    private final List<Token> tokens;
+    /// The maximum lookahead, a power of two.
+    public static final int LOOKAHEAD = 4;
+
+    private final TokenStore tokens;
+    // whether consumed tokens are dropped from the store
+    private final boolean streaming;
     private int idx;
 
     public TokenSource(Lexer lexer) {
-        this.tokens = Stream.generate(lexer::nextToken).takeWhile(Optional::isPresent).map(Optional::orElseThrow).toList();
+        this.tokens = new TokenStore(lexer, LOOKAHEAD);
+        this.streaming = true;
     }
 
-    TokenSource(List<Token> tokens) {
-        this.tokens = List.copyOf(tokens);
+    /// Reads the tokens from a store that is already filled, e.g. by [TokenStore#lexAll(Lexer)].
+    /// The store is not modified, so it can be parsed repeatedly.
+    public TokenSource(TokenStore tokens) {
+        this.tokens = tokens;
+        this.streaming = false;
     }
 
+    /// {@return the next token as an object}
     public Token peek() {
-        expectHasMore();
-        return this.tokens.get(this.idx);
+        return peek(0);
+    }
+
+    /// {@return the token `offset` tokens after the next one, as an object}
+    ///
+    /// @throws IllegalArgumentException if `offset` exceeds the [#LOOKAHEAD]
+    public Token peek(int offset) {
+        return this.tokens.token(index(offset));
+    }
+
+    /// {@return the [TokenKind] of the next token}
+    public byte peekKind() {
+        return this.tokens.kind(index(0));
+    }
+
+    /// {@return the [PackedSpan] of the next token}
+    public long peekSpan() {
+        return this.tokens.span(index(0));
+    }
+
+    /// {@return the source text of the next token}
+    public String peekText() {
+        return this.tokens.text(index(0));
+    }
+
+    /// {@return the value of the next token, which must be a number literal}
+    public long peekValue() {
+        return this.tokens.value(index(0));
+    }
+
+    /// {@return the type of the next token if it is an operator, `null` otherwise}
+    public @Nullable OperatorType peekOperator() {
+        byte kind = peekKind();
+        return TokenKind.isOperator(kind) ? TokenKind.operatorType(kind) : null;
+    }
+
+    public boolean isKeyword(KeywordType type) {
+        return peekKind() == TokenKind.of(type);
     }
 
-    public Keyword expectKeyword(KeywordType type) {
-        Token token = peek();
-        if (!(token instanceof Keyword kw) || kw.type() != type) {
-            throw new ParseException("expected keyword '" + type + "' but got " + token);
+    public boolean isSeparator(SeparatorType type) {
+        return peekKind() == TokenKind.of(type);
+    }
+
+    public boolean isOperator(OperatorType type) {
+        return peekKind() == TokenKind.of(type);
+    }
+
+    public boolean isIdentifier() {
+        return peekKind() == TokenKind.IDENTIFIER;
+    }
+
+    /// {@return the [PackedSpan] of the keyword}
+    public long expectKeyword(KeywordType type) {
+        if (!isKeyword(type)) {
+            throw new ParseException("expected keyword '" + type + "' but got " + peek());
         }
-        this.idx++;
-        return kw;
+        return consume();
     }
 
-    public Separator expectSeparator(SeparatorType type) {
-        Token token = peek();
-        if (!(token instanceof Separator sep) || sep.type() != type) {
-            throw new ParseException("expected separator '" + type + "' but got " + token);
+    /// {@return the [PackedSpan] of the separator}
+    public long expectSeparator(SeparatorType type) {
+        if (!isSeparator(type)) {
+            throw new ParseException("expected separator '" + type + "' but got " + peek());
         }
-        this.idx++;
-        return sep;
+        return consume();
     }
 
-    public Operator expectOperator(OperatorType type) {
-        Token token = peek();
-        if (!(token instanceof Operator op) || op.type() != type) {
-            throw new ParseException("expected operator '" + type + "' but got " + token);
+    /// {@return the [PackedSpan] of the operator}
+    public long expectOperator(OperatorType type) {
+        if (!isOperator(type)) {
+            throw new ParseException("expected operator '" + type + "' but got " + peek());
         }
-        this.idx++;
-        return op;
+        return consume();
     }
 
-    public Identifier expectIdentifier() {
-        Token token = peek();
-        if (!(token instanceof Identifier ident)) {
-            throw new ParseException("expected identifier but got " + token);
+    /// {@return the interned name of the identifier}
+    public Name expectIdentifier() {
+        if (!isIdentifier()) {
+            throw new ParseException("expected identifier but got " + peek());
         }
-        this.idx++;
-        return ident;
+        Name name = this.tokens.name(index(0));
+        consume();
+        return name;
     }
 
-    public Token consume() {
-        Token token = peek();
+    /// Skips the next token.
+    ///
+    /// @return its [PackedSpan]
+    public long consume() {
+        long span = peekSpan();
         this.idx++;
-        return token;
+        if (this.streaming) {
+            this.tokens.discardBefore(this.idx);
+        }
+        return span;
     }
 
     public boolean hasMore() {
-        return this.idx < this.tokens.size();
+        return fill(0);
     }
 
-    private void expectHasMore() {
-        if (this.idx >= this.tokens.size()) {
+    private int index(int offset) {
+        if (offset < 0 || offset >= LOOKAHEAD) {
+            throw new IllegalArgumentException("lookahead of " + offset + " is not supported");
+        }
+        if (!fill(offset)) {
             throw new ParseException("reached end of file");
         }
+        return this.idx + offset;
+    }
+
+    /// Pulls tokens from the lexer until the one at `offset` is stored.
+    ///
+    /// @return false if the input ends before
+    private boolean fill(int offset) {
+        while (this.tokens.limit() <= this.idx + offset) {
+            if (!this.tokens.lexNext()) {
+                return false;
+            }
+        }
+        return true;
     }
 }
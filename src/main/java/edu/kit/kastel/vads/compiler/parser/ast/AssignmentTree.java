@@ -1,13 +1,13 @@
 package edu.kit.kastel.vads.compiler.parser.ast;
 
-import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.PackedSpan;
 import edu.kit.kastel.vads.compiler.lexer.Operator;
 import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
 
-public record AssignmentTree(LValueTree lValue, Operator operator, ExpressionTree expression) implements StatementTree {
+public record AssignmentTree(LValueTree lValue, Operator.OperatorType operatorType, ExpressionTree expression) implements StatementTree {
     @Override
-    public Span span() {
-        return lValue().span().merge(expression().span());
+    public long span() {
+        return PackedSpan.merge(lValue().span(), expression().span());
     }
 
     @Override
@@ -1,13 +1,15 @@
 package edu.kit.kastel.vads.compiler.parser.ast;
 
-import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.PackedSpan;
 import edu.kit.kastel.vads.compiler.lexer.Operator;
 import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
 
-public record BinaryOperationTree(ExpressionTree lhs, ExpressionTree rhs, Operator.OperatorType operatorType) implements ExpressionTree {
-    @Override
-    public Span span() {
-        return lhs().span().merge(rhs().span());
+/// @param span the span is stored instead of computed from the operands,
+///             which would take time proportional to the nesting depth of the expression
+public record BinaryOperationTree(ExpressionTree lhs, ExpressionTree rhs, Operator.OperatorType operatorType, long span) implements ExpressionTree {
+
+    public BinaryOperationTree(ExpressionTree lhs, ExpressionTree rhs, Operator.OperatorType operatorType) {
+        this(lhs, rhs, operatorType, PackedSpan.merge(lhs.span(), rhs.span()));
     }
 
     @Override
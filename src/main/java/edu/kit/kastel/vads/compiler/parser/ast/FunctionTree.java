@@ -1,12 +1,12 @@
 package edu.kit.kastel.vads.compiler.parser.ast;
 
-import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.PackedSpan;
 import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
 
 public record FunctionTree(TypeTree returnType, NameTree name, BlockTree body) implements Tree {
     @Override
-    public Span span() {
-        return new Span.SimpleSpan(returnType().span().start(), body().span().end());
+    public long span() {
+        return PackedSpan.merge(returnType().span(), body().span());
     }
 
     @Override
@@ -1,11 +1,10 @@
 package edu.kit.kastel.vads.compiler.parser.ast;
 
-import edu.kit.kastel.vads.compiler.Span;
 import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
 
 public record IdentExpressionTree(NameTree name) implements ExpressionTree {
     @Override
-    public Span span() {
+    public long span() {
         return name().span();
     }
 
@@ -1,44 +1,28 @@
 package edu.kit.kastel.vads.compiler.parser.ast;
 
-import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.NumberLiteral;
 import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
 
-import java.util.OptionalLong;
-
-public record LiteralTree(String value, int base, Span span) implements ExpressionTree {
+/// An integer literal.
+///
+/// @param value the source text of the literal
+/// @param numericValue the value computed by the lexer, [NumberLiteral#OUT_OF_RANGE] if it doesn't fit into an `int`
+public record LiteralTree(String value, int base, long numericValue, long span) implements ExpressionTree {
     @Override
     public <T, R> R accept(Visitor<T, R> visitor, T data) {
         return visitor.visit(this, data);
     }
 
-    public OptionalLong parseValue() {
-        int end = value.length();
-        return switch (base) {
-            case 16 -> parseHex(end);
-            case 10 -> parseDec(end);
-            default -> throw new IllegalArgumentException("unexpected base " + base);
-        };
-    }
-
-    private OptionalLong parseDec(int end) {
-        long l;
-        try {
-            l = Long.parseLong(value, 0, end, base);
-        } catch (NumberFormatException _) {
-            return OptionalLong.empty();
-        }
-        if (l < 0 || l > Integer.toUnsignedLong(Integer.MIN_VALUE)) {
-            return OptionalLong.empty();
-        }
-        return OptionalLong.of(l);
+    public boolean isInRange() {
+        return this.numericValue != NumberLiteral.OUT_OF_RANGE;
     }
 
-    private OptionalLong parseHex(int end) {
-        try {
-            return OptionalLong.of(Integer.parseUnsignedInt(value, 2, end, 16));
-        } catch (NumberFormatException e) {
-            return OptionalLong.empty();
+    /// {@return the value as an `int`, `2^31` and hexadecimal literals above `0x7FFFFFFF` wrap around}
+    public int intValue() {
+        if (!isInRange()) {
+            throw new IllegalStateException("integer literal " + this.value + " is out of range");
         }
+        return (int) this.numericValue;
     }
 
 }
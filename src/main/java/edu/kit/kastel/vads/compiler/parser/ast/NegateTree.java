@@ -1,12 +1,14 @@
 package edu.kit.kastel.vads.compiler.parser.ast;
 
-import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.PackedSpan;
 import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
 
-public record NegateTree(ExpressionTree expression, Span minusPos) implements ExpressionTree {
-    @Override
-    public Span span() {
-        return minusPos().merge(expression().span());
+/// @param span the span is stored instead of computed from the operand,
+///             which would take time proportional to the nesting depth of the expression
+public record NegateTree(ExpressionTree expression, long minusPos, long span) implements ExpressionTree {
+
+    public NegateTree(ExpressionTree expression, long minusPos) {
+        this(expression, minusPos, PackedSpan.merge(minusPos, expression.span()));
     }
 
     @Override
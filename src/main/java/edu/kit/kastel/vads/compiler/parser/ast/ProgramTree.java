@@ -1,6 +1,6 @@
 package edu.kit.kastel.vads.compiler.parser.ast;
 
-import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.PackedSpan;
 import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
 
 import java.util.List;
@@ -12,10 +12,10 @@ public record ProgramTree(List<FunctionTree> topLevelTrees) implements Tree {
     }
 
     @Override
-    public Span span() {
+    public long span() {
         var first = topLevelTrees.getFirst();
         var last = topLevelTrees.getLast();
-        return new Span.SimpleSpan(first.span().start(), last.span().end());
+        return PackedSpan.merge(first.span(), last.span());
     }
 
     @Override
@@ -1,11 +1,11 @@
 package edu.kit.kastel.vads.compiler.parser.ast;
 
-import edu.kit.kastel.vads.compiler.Span;
 import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
 
 public sealed interface Tree permits ExpressionTree, FunctionTree, LValueTree, NameTree, ProgramTree, StatementTree, TypeTree {
 
-    Span span();
+    /// {@return the [edu.kit.kastel.vads.compiler.PackedSpan] of this tree}
+    long span();
 
     <T, R> R accept(Visitor<T, R> visitor, T data);
 }
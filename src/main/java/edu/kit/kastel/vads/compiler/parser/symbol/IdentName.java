@@ -1,6 +1,6 @@
 package edu.kit.kastel.vads.compiler.parser.symbol;
 
-record IdentName(String identifier) implements Name {
+record IdentName(String identifier, int id) implements Name {
     @Override
     public String asString() {
         return identifier();
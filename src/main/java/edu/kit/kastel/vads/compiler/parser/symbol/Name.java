@@ -1,17 +1,16 @@
 package edu.kit.kastel.vads.compiler.parser.symbol;
 
-import edu.kit.kastel.vads.compiler.lexer.Identifier;
 import edu.kit.kastel.vads.compiler.lexer.Keyword;
 
+/// A name in the program. Identifiers are interned by a [SymbolTable].
 public sealed interface Name permits IdentName, KeywordName {
 
     static Name forKeyword(Keyword keyword) {
         return new KeywordName(keyword.type());
     }
 
-    static Name forIdentifier(Identifier identifier) {
-        return new IdentName(identifier.value());
-    }
-
     String asString();
+
+    /// {@return the id of this name in its [SymbolTable], a small non-negative number}
+    int id();
 }
@@ -0,0 +1,117 @@
+package edu.kit.kastel.vads.compiler.parser.symbol;
+
+import edu.kit.kastel.vads.compiler.lexer.KeywordType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/// The names of one compilation.
+///
+/// Every distinct identifier is interned into a single [Name] with a dense [Name#id()],
+/// so later phases can keep per-variable state in arrays indexed by that id instead of hashing names.
+/// The ids `0` up to the number of [KeywordType]s belong to the keywords, identifiers follow in order of appearance.
+///
+/// A table is not thread-safe, but the names it created can be shared freely.
+public final class SymbolTable {
+    private static final int KEYWORDS = KeywordType.values().length;
+
+    private Name[] names = new Name[64];
+    private byte[][] bytes = new byte[64][];
+    private int[] hashes = new int[64];
+    // open addressing, id + 1 of the identifier in each slot, 0 if the slot is empty
+    private int[] slots = new int[128];
+    private int size;
+
+    public SymbolTable() {
+        for (KeywordType type : KeywordType.values()) {
+            this.names[type.ordinal()] = new KeywordName(type);
+        }
+        this.size = KEYWORDS;
+    }
+
+    /// {@return the name of `identifier`}
+    public Name intern(String identifier) {
+        byte[] utf8 = identifier.getBytes(StandardCharsets.UTF_8);
+        return name(intern(ByteBuffer.wrap(utf8), 0, utf8.length));
+    }
+
+    /// Interns the identifier made of the UTF-8 encoded bytes between the two offsets of `source`.
+    ///
+    /// @return the id of its name
+    public int intern(ByteBuffer source, int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.get(i);
+        }
+        int mask = this.slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = this.slots[slot] - 1;
+            if (id < 0) {
+                return add(slot, hash, source, start, end);
+            }
+            if (this.hashes[id] == hash && matches(this.bytes[id], source, start, end)) {
+                return id;
+            }
+        }
+    }
+
+    /// {@return the name with the given id}
+    public Name name(int id) {
+        return this.names[id];
+    }
+
+    /// {@return the number of names, which is greater than all of their ids}
+    public int size() {
+        return this.size;
+    }
+
+    private int add(int slot, int hash, ByteBuffer source, int start, int end) {
+        int id = this.size++;
+        if (id == this.names.length) {
+            this.names = Arrays.copyOf(this.names, id * 2);
+            this.bytes = Arrays.copyOf(this.bytes, id * 2);
+            this.hashes = Arrays.copyOf(this.hashes, id * 2);
+        }
+        byte[] identifier = new byte[end - start];
+        source.get(start, identifier);
+        this.names[id] = new IdentName(new String(identifier, StandardCharsets.UTF_8), id);
+        this.bytes[id] = identifier;
+        this.hashes[id] = hash;
+        this.slots[slot] = id + 1;
+        // keep the load factor of the slots at most 1/2
+        if ((this.size - KEYWORDS) * 2 > this.slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        this.slots = new int[this.slots.length * 2];
+        int mask = this.slots.length - 1;
+        for (int id = KEYWORDS; id < this.size; id++) {
+            int slot = mix(this.hashes[id]) & mask;
+            while (this.slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            this.slots[slot] = id + 1;
+        }
+    }
+
+    private static boolean matches(byte[] identifier, ByteBuffer source, int start, int end) {
+        if (identifier.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < identifier.length; i++) {
+            if (identifier[i] != source.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int mix(int hash) {
+        // only the low bits select a slot, let the high bits take part, like HashMap does
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,162 @@
+package edu.kit.kastel.vads.compiler.parser.visitor;
+
+import edu.kit.kastel.vads.compiler.parser.ast.*;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+/// Runs several [NoOpVisitor]s in a single traversal.
+///
+/// Each visitor is added together with its own data, which it gets instead of the data of the traversal.
+/// Every tree is passed to the visitors in the order they were added.
+///
+/// If a visitor throws, neither it nor the visitors added after it are called again,
+/// and [#finish()] rethrows the exception of the first visitor that failed.
+/// For visitors that don't depend on each other, that is the exception
+/// a separate traversal for each of them, one after another, would have thrown.
+public final class CompositeVisitor implements Visitor<Unit, Unit> {
+    private final List<Pass<?>> passes = new ArrayList<>();
+    private final boolean timed;
+    // the number of passes that are still called
+    private int active;
+    private @Nullable RuntimeException failure;
+
+    /// @param timed whether the time spent in each visitor is measured, see [#forEachTime(ObjLongConsumer)]
+    public CompositeVisitor(boolean timed) {
+        this.timed = timed;
+    }
+
+    /// Adds a visitor, which is called with `data` for every tree.
+    ///
+    /// @param name the name of the visitor for [#forEachTime(ObjLongConsumer)]
+    /// @return this
+    public <T> CompositeVisitor add(String name, NoOpVisitor<T> visitor, T data) {
+        this.passes.add(new Pass<>(name, visitor, data));
+        this.active = this.passes.size();
+        return this;
+    }
+
+    /// Completes the traversal.
+    ///
+    /// @throws RuntimeException the exception of the first visitor that failed
+    public void finish() {
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    /// Passes the name of each visitor and the nanoseconds spent in it to `action`.
+    /// The times are only measured if this visitor is timed.
+    public void forEachTime(ObjLongConsumer<String> action) {
+        for (Pass<?> pass : this.passes) {
+            action.accept(pass.name, pass.nanos);
+        }
+    }
+
+    @Override
+    public Unit visit(AssignmentTree assignmentTree, Unit data) {
+        return visitAll(assignmentTree);
+    }
+
+    @Override
+    public Unit visit(BinaryOperationTree binaryOperationTree, Unit data) {
+        return visitAll(binaryOperationTree);
+    }
+
+    @Override
+    public Unit visit(BlockTree blockTree, Unit data) {
+        return visitAll(blockTree);
+    }
+
+    @Override
+    public Unit visit(DeclarationTree declarationTree, Unit data) {
+        return visitAll(declarationTree);
+    }
+
+    @Override
+    public Unit visit(FunctionTree functionTree, Unit data) {
+        return visitAll(functionTree);
+    }
+
+    @Override
+    public Unit visit(IdentExpressionTree identExpressionTree, Unit data) {
+        return visitAll(identExpressionTree);
+    }
+
+    @Override
+    public Unit visit(LiteralTree literalTree, Unit data) {
+        return visitAll(literalTree);
+    }
+
+    @Override
+    public Unit visit(LValueIdentTree lValueIdentTree, Unit data) {
+        return visitAll(lValueIdentTree);
+    }
+
+    @Override
+    public Unit visit(NameTree nameTree, Unit data) {
+        return visitAll(nameTree);
+    }
+
+    @Override
+    public Unit visit(NegateTree negateTree, Unit data) {
+        return visitAll(negateTree);
+    }
+
+    @Override
+    public Unit visit(ProgramTree programTree, Unit data) {
+        return visitAll(programTree);
+    }
+
+    @Override
+    public Unit visit(ReturnTree returnTree, Unit data) {
+        return visitAll(returnTree);
+    }
+
+    @Override
+    public Unit visit(TypeTree typeTree, Unit data) {
+        return visitAll(typeTree);
+    }
+
+    private Unit visitAll(Tree tree) {
+        for (int i = 0; i < this.active; i++) {
+            Pass<?> pass = this.passes.get(i);
+            try {
+                if (this.timed) {
+                    long start = System.nanoTime();
+                    pass.visit(tree);
+                    pass.nanos += System.nanoTime() - start;
+                } else {
+                    pass.visit(tree);
+                }
+            } catch (RuntimeException e) {
+                // the exceptions of later passes would never be reported
+                this.failure = e;
+                this.active = i;
+                if (i == 0) {
+                    throw e;
+                }
+            }
+        }
+        return Unit.INSTANCE;
+    }
+
+    private static final class Pass<T> {
+        private final String name;
+        private final NoOpVisitor<T> visitor;
+        private final T data;
+        private long nanos;
+
+        Pass(String name, NoOpVisitor<T> visitor, T data) {
+            this.name = name;
+            this.visitor = visitor;
+            this.data = data;
+        }
+
+        void visit(Tree tree) {
+            tree.accept(this.visitor, this.data);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package edu.kit.kastel.vads.compiler.parser.visitor;
+
+import edu.kit.kastel.vads.compiler.parser.ast.*;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/// Visits the trees of an AST in postorder without recursion:
+/// the subtrees of a tree from left to right, then the tree itself.
+///
+/// The path to the current tree is kept on an explicit stack,
+/// so the depth of the tree is not limited by the size of the thread stack.
+/// Each tree is classified once when it is reached, and then visited by calling the visitor directly,
+/// which saves the megamorphic [Tree#accept(Visitor, Object)] calls of a recursive traversal.
+/// All trees are visited with the same `data`.
+/// If the visitor is a [PostorderVisitor], it can skip subtrees.
+public final class PostorderTraversal<T, R> {
+    // the kinds of trees, 0 for trees that were not reached yet
+    private static final byte ASSIGNMENT = 1;
+    private static final byte BINARY_OPERATION = 2;
+    private static final byte BLOCK = 3;
+    private static final byte DECLARATION = 4;
+    private static final byte FUNCTION = 5;
+    private static final byte IDENT_EXPRESSION = 6;
+    private static final byte LITERAL = 7;
+    private static final byte L_VALUE_IDENT = 8;
+    private static final byte NAME = 9;
+    private static final byte NEGATE = 10;
+    private static final byte PROGRAM = 11;
+    private static final byte RETURN = 12;
+    private static final byte TYPE = 13;
+
+    private final Visitor<T, R> visitor;
+    private final @Nullable PostorderVisitor<T, R> enterVisitor;
+    // not a Tree[], as storing into an array of an interface type needs a slow type check
+    private Object[] trees = new Object[64];
+    // the kinds of the trees at the same index, once their subtrees were pushed
+    private byte[] kinds = new byte[64];
+    private int size;
+
+    private PostorderTraversal(Visitor<T, R> visitor) {
+        this.visitor = visitor;
+        this.enterVisitor = visitor instanceof PostorderVisitor<T, R> postorderVisitor ? postorderVisitor : null;
+    }
+
+    /// Visits `tree` and all of its subtrees in postorder.
+    ///
+    /// @return the result of visiting `tree` itself, `null` if it was skipped
+    public static <T, R> @Nullable R traverse(Tree tree, Visitor<T, R> visitor, T data) {
+        return new PostorderTraversal<>(visitor).run(tree, data);
+    }
+
+    private @Nullable R run(Tree root, T data) {
+        R result = null;
+        // the tree to descend into next, its first subtree is not pushed but descended into directly
+        @Nullable Object next = root;
+        while (true) {
+            if (next != null) {
+                Object tree = next;
+                if (this.enterVisitor != null && !this.enterVisitor.enter((Tree) tree, data)) {
+                    next = null;
+                    result = null;
+                    continue;
+                }
+                int top = this.size;
+                push(tree);
+                next = pushChildren(tree);
+                if (next != null) {
+                    continue;
+                }
+                // a leaf, visit it right away
+                this.size = top;
+                this.trees[top] = null;
+                result = visit(tree, this.kinds[top], data);
+            } else if (this.size == 0) {
+                return result;
+            } else {
+                int top = this.size - 1;
+                Object tree = this.trees[top];
+                byte kind = this.kinds[top];
+                if (kind > 0) {
+                    // the subtrees are done
+                    pop();
+                    result = visit(tree, kind, data);
+                } else {
+                    // a right sibling
+                    pop();
+                    next = tree;
+                }
+            }
+        }
+    }
+
+    /// Pushes the kind of `tree`, and its subtrees except for the first one in reverse,
+    /// so they are visited from left to right.
+    /// The most frequent trees are tested first.
+    ///
+    /// @return the first subtree, `null` if `tree` is a leaf
+    private @Nullable Object pushChildren(Object tree) {
+        int index = this.size - 1;
+        if (tree instanceof NameTree) {
+            this.kinds[index] = NAME;
+            return null;
+        } else if (tree instanceof LiteralTree) {
+            this.kinds[index] = LITERAL;
+            return null;
+        } else if (tree instanceof BinaryOperationTree binaryOperation) {
+            this.kinds[index] = BINARY_OPERATION;
+            push(binaryOperation.rhs());
+            return binaryOperation.lhs();
+        } else if (tree instanceof IdentExpressionTree identExpression) {
+            this.kinds[index] = IDENT_EXPRESSION;
+            return identExpression.name();
+        } else if (tree instanceof NegateTree negate) {
+            this.kinds[index] = NEGATE;
+            return negate.expression();
+        } else if (tree instanceof AssignmentTree assignment) {
+            this.kinds[index] = ASSIGNMENT;
+            push(assignment.expression());
+            return assignment.lValue();
+        } else if (tree instanceof LValueIdentTree lValueIdent) {
+            this.kinds[index] = L_VALUE_IDENT;
+            return lValueIdent.name();
+        } else if (tree instanceof DeclarationTree declaration) {
+            this.kinds[index] = DECLARATION;
+            if (declaration.initializer() != null) {
+                push(declaration.initializer());
+            }
+            push(declaration.name());
+            return declaration.type();
+        } else if (tree instanceof TypeTree) {
+            this.kinds[index] = TYPE;
+            return null;
+        } else if (tree instanceof ReturnTree returnTree) {
+            this.kinds[index] = RETURN;
+            return returnTree.expression();
+        } else if (tree instanceof BlockTree block) {
+            this.kinds[index] = BLOCK;
+            return pushAll(block.statements());
+        } else if (tree instanceof FunctionTree function) {
+            this.kinds[index] = FUNCTION;
+            push(function.body());
+            push(function.name());
+            return function.returnType();
+        } else if (tree instanceof ProgramTree program) {
+            this.kinds[index] = PROGRAM;
+            return pushAll(program.topLevelTrees());
+        }
+        throw new IllegalArgumentException("unknown tree " + tree.getClass());
+    }
+
+    private R visit(Object tree, byte kind, T data) {
+        return switch (kind) {
+            case ASSIGNMENT -> this.visitor.visit((AssignmentTree) tree, data);
+            case BINARY_OPERATION -> this.visitor.visit((BinaryOperationTree) tree, data);
+            case BLOCK -> this.visitor.visit((BlockTree) tree, data);
+            case DECLARATION -> this.visitor.visit((DeclarationTree) tree, data);
+            case FUNCTION -> this.visitor.visit((FunctionTree) tree, data);
+            case IDENT_EXPRESSION -> this.visitor.visit((IdentExpressionTree) tree, data);
+            case LITERAL -> this.visitor.visit((LiteralTree) tree, data);
+            case L_VALUE_IDENT -> this.visitor.visit((LValueIdentTree) tree, data);
+            case NAME -> this.visitor.visit((NameTree) tree, data);
+            case NEGATE -> this.visitor.visit((NegateTree) tree, data);
+            case PROGRAM -> this.visitor.visit((ProgramTree) tree, data);
+            case RETURN -> this.visitor.visit((ReturnTree) tree, data);
+            case TYPE -> this.visitor.visit((TypeTree) tree, data);
+            default -> throw new IllegalStateException("unknown kind " + kind);
+        };
+    }
+
+    private @Nullable Object pushAll(List<? extends Tree> children) {
+        if (children.isEmpty()) {
+            return null;
+        }
+        for (int i = children.size() - 1; i > 0; i--) {
+            push(children.get(i));
+        }
+        return children.getFirst();
+    }
+
+    private void push(Object tree) {
+        if (this.size == this.trees.length) {
+            this.trees = Arrays.copyOf(this.trees, this.size * 2);
+            this.kinds = Arrays.copyOf(this.kinds, this.size * 2);
+        }
+        this.trees[this.size] = tree;
+        this.kinds[this.size] = 0;
+        this.size++;
+    }
+
+    private void pop() {
+        this.size--;
+        this.trees[this.size] = null;
+    }
+}
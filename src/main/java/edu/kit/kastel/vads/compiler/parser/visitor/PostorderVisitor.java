@@ -0,0 +1,17 @@
+package edu.kit.kastel.vads.compiler.parser.visitor;
+
+import edu.kit.kastel.vads.compiler.parser.ast.Tree;
+
+/// A [Visitor] that is also told when [PostorderTraversal] reaches a tree, before its subtrees are visited.
+///
+/// @param <T> a type for additional data
+/// @param <R> a type for a return type
+public interface PostorderVisitor<T, R> extends Visitor<T, R> {
+
+    /// Called before the subtrees of `tree` are traversed.
+    ///
+    /// @return false to skip `tree` and all of its subtrees
+    default boolean enter(Tree tree, T data) {
+        return true;
+    }
+}
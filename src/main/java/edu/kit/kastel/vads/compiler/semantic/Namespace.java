@@ -1,26 +1,32 @@
 package edu.kit.kastel.vads.compiler.semantic;
 
 import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
-import edu.kit.kastel.vads.compiler.parser.symbol.Name;
 import org.jspecify.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.function.BinaryOperator;
 
+/// Values by name, stored in an array indexed by the [edu.kit.kastel.vads.compiler.parser.symbol.Name#id()].
 public class Namespace<T> {
 
-    private final Map<Name, T> content;
+    private @Nullable Object[] content;
 
     public Namespace() {
-        this.content = new HashMap<>();
+        this.content = new Object[64];
     }
 
     public void put(NameTree name, T value, BinaryOperator<T> merger) {
-        this.content.merge(name.name(), value, merger);
+        int id = name.name().id();
+        if (id >= this.content.length) {
+            this.content = Arrays.copyOf(this.content, Math.max(id + 1, this.content.length * 2));
+        }
+        T existing = get(name);
+        this.content[id] = existing == null ? value : merger.apply(existing, value);
     }
 
+    @SuppressWarnings("unchecked")
     public @Nullable T get(NameTree name) {
-        return this.content.get(name.name());
+        int id = name.name().id();
+        return id < this.content.length ? (T) this.content[id] : null;
     }
 }
@@ -22,7 +22,7 @@ class ReturnAnalysis implements NoOpVisitor<ReturnAnalysis.ReturnState> {
     @Override
     public Unit visit(FunctionTree functionTree, ReturnState data) {
         if (!data.returns) {
-            throw new SemanticException("function " + functionTree.name() + " does not return");
+            throw new SemanticException("function " + functionTree.name().name().asString() + " does not return", functionTree.span());
         }
         data.returns = false;
         return NoOpVisitor.super.visit(functionTree, data);
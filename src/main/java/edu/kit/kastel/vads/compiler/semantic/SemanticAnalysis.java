@@ -1,20 +1,39 @@
 package edu.kit.kastel.vads.compiler.semantic;
 
+import edu.kit.kastel.vads.compiler.PhaseStatistics;
 import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
-import edu.kit.kastel.vads.compiler.parser.visitor.RecursivePostorderVisitor;
+import edu.kit.kastel.vads.compiler.parser.visitor.CompositeVisitor;
+import edu.kit.kastel.vads.compiler.parser.visitor.PostorderTraversal;
+import edu.kit.kastel.vads.compiler.parser.visitor.Unit;
 
+/// Runs all analyses in a single traversal of the program.
+/// If statistics are enabled, the time spent in each analysis is recorded as well.
 public class SemanticAnalysis {
 
     private final ProgramTree program;
+    private final PhaseStatistics statistics;
 
     public SemanticAnalysis(ProgramTree program) {
+        this(program, PhaseStatistics.DISABLED);
+    }
+
+    public SemanticAnalysis(ProgramTree program, PhaseStatistics statistics) {
         this.program = program;
+        this.statistics = statistics;
     }
 
     public void analyze() {
-        this.program.accept(new RecursivePostorderVisitor<>(new IntegerLiteralRangeAnalysis()), new Namespace<>());
-        this.program.accept(new RecursivePostorderVisitor<>(new VariableStatusAnalysis()), new Namespace<>());
-        this.program.accept(new RecursivePostorderVisitor<>(new ReturnAnalysis()), new ReturnAnalysis.ReturnState());
+        // the reported error is the first one of the first analysis that fails, as if they ran one after another
+        CompositeVisitor analyses = new CompositeVisitor(this.statistics.isEnabled())
+                .add("literal range", new IntegerLiteralRangeAnalysis(), new Namespace<>())
+                .add("variable status", new VariableStatusAnalysis(), new Namespace<>())
+                .add("return", new ReturnAnalysis(), new ReturnAnalysis.ReturnState());
+        try {
+            PostorderTraversal.traverse(this.program, analyses, Unit.INSTANCE);
+            analyses.finish();
+        } finally {
+            analyses.forEachTime((name, nanos) -> this.statistics.add("semantic/" + name, nanos));
+        }
     }
 
 }
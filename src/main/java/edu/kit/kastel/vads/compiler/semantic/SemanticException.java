@@ -1,7 +1,25 @@
 package edu.kit.kastel.vads.compiler.semantic;
 
+import java.util.OptionalLong;
+
+/// The message names the offending variable or function by its identifier,
+/// its position is resolved from the [#span()] by whoever reports the error.
 public class SemanticException extends RuntimeException {
+    private final OptionalLong span;
+
     public SemanticException(String message) {
         super(message);
+        this.span = OptionalLong.empty();
+    }
+
+    /// @param span the [edu.kit.kastel.vads.compiler.PackedSpan] of the offending tree
+    public SemanticException(String message, long span) {
+        super(message);
+        this.span = OptionalLong.of(span);
+    }
+
+    /// {@return the [edu.kit.kastel.vads.compiler.PackedSpan] of the offending tree, if known}
+    public OptionalLong span() {
+        return this.span;
     }
 }
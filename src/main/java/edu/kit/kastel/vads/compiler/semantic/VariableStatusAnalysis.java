@@ -20,7 +20,7 @@ class VariableStatusAnalysis implements NoOpVisitor<Namespace<VariableStatusAnal
         switch (assignmentTree.lValue()) {
             case LValueIdentTree(var name) -> {
                 VariableStatus status = data.get(name);
-                if (assignmentTree.operator().type() == Operator.OperatorType.ASSIGN) {
+                if (assignmentTree.operatorType() == Operator.OperatorType.ASSIGN) {
                     checkDeclared(name, status);
                 } else {
                     checkInitialized(name, status);
@@ -36,19 +36,19 @@ class VariableStatusAnalysis implements NoOpVisitor<Namespace<VariableStatusAnal
 
     private static void checkDeclared(NameTree name, @Nullable VariableStatus status) {
         if (status == null) {
-            throw new SemanticException("Variable " + name + " must be declared before assignment");
+            throw new SemanticException("Variable " + name.name().asString() + " must be declared before assignment", name.span());
         }
     }
 
     private static void checkInitialized(NameTree name, @Nullable VariableStatus status) {
         if (status == null || status == VariableStatus.DECLARED) {
-            throw new SemanticException("Variable " + name + " must be initialized before use");
+            throw new SemanticException("Variable " + name.name().asString() + " must be initialized before use", name.span());
         }
     }
 
     private static void checkUndeclared(NameTree name, @Nullable VariableStatus status) {
         if (status != null) {
-            throw new SemanticException("Variable " + name + " is already declared");
+            throw new SemanticException("Variable " + name.name().asString() + " is already declared", name.span());
         }
     }
 
@@ -63,7 +63,7 @@ class VariableStatusAnalysis implements NoOpVisitor<Namespace<VariableStatusAnal
     private static void updateStatus(Namespace<VariableStatus> data, VariableStatus status, NameTree name) {
         data.put(name, status, (existing, replacement) -> {
             if (existing.ordinal() >= replacement.ordinal()) {
-                throw new SemanticException("variable is already " + existing + ". Cannot be " + replacement + " here.");
+                throw new SemanticException("variable is already " + existing + ". Cannot be " + replacement + " here.", name.span());
             }
             return replacement;
         });
@@ -4,4 +4,5 @@ import org.jspecify.annotations.NullMarked;
     requires org.jspecify;
     requires java.xml;
     requires org.jgrapht.core;
+    requires jdk.management;
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package edu.kit.kastel.vads.compiler;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompileCacheTest {
+
+    @Test
+    void restoresStoredExecutable() throws IOException {
+        Path directory = Files.createTempDirectory("cache");
+        try {
+            CompileCache cache = new CompileCache(directory, 1024, "build");
+            String key = cache.key("int main() { return 0; }".getBytes(), "gcc");
+            Path output = directory.resolve("a.out");
+            assertFalse(cache.restore(key, output));
+            cache.store(key, executable(directory, 10));
+            assertTrue(cache.restore(key, output));
+            assertEquals(10, Files.size(output));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    void keyDependsOnBuild() throws IOException {
+        Path directory = Files.createTempDirectory("cache");
+        try {
+            byte[] source = "int main() { return 0; }".getBytes();
+            String key = new CompileCache(directory, 1024, "build").key(source, "gcc");
+            assertEquals(key, new CompileCache(directory, 1024, "build").key(source, "gcc"));
+            assertNotEquals(key, new CompileCache(directory, 1024, "rebuilt").key(source, "gcc"));
+            assertNotEquals(key, new CompileCache(directory, 1024, "build").key(source, "elf"));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntries() throws IOException {
+        Path directory = Files.createTempDirectory("cache");
+        try {
+            CompileCache cache = new CompileCache(directory, 250, "build");
+            Path output = directory.resolve("a.out");
+            for (int i = 0; i < 2; i++) {
+                cache.store("entry" + i, executable(directory, 100));
+                Files.setLastModifiedTime(directory.resolve("entry" + i + ".bin"), FileTime.fromMillis(1000L * i));
+            }
+            assertTrue(cache.restore("entry0", output));
+            // entry1 is now the least recently used one
+            cache.store("entry2", executable(directory, 100));
+            assertTrue(cache.restore("entry0", output));
+            assertFalse(cache.restore("entry1", output));
+            assertTrue(cache.restore("entry2", output));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    void invalidSizeLimitIsIgnored() {
+        String previous = System.getProperty("compileCacheSize");
+        try {
+            System.setProperty("compileCacheSize", " 4096 ");
+            assertEquals(4096, CompileCache.maxSize());
+            for (String size : new String[] {"256M", "", "0", "-1", "99999999999999999999"}) {
+                System.setProperty("compileCacheSize", size);
+                assertEquals(CompileCache.DEFAULT_MAX_SIZE, CompileCache.maxSize(), size);
+            }
+        } finally {
+            if (previous == null) {
+                System.clearProperty("compileCacheSize");
+            } else {
+                System.setProperty("compileCacheSize", previous);
+            }
+        }
+    }
+
+    private static Path executable(Path directory, int size) throws IOException {
+        return Files.write(Files.createTempFile(directory, "executable", ".out"), new byte[size]);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
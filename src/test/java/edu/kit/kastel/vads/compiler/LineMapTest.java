@@ -0,0 +1,39 @@
+package edu.kit.kastel.vads.compiler;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineMapTest {
+
+    @Test
+    void linesAndColumns() {
+        LineMap lineMap = lineMap("int a;\nreturn a;\r\n");
+        assertEquals(new Position.SimplePosition(0, 0), lineMap.position(0));
+        assertEquals(new Position.SimplePosition(0, 4), lineMap.position(4));
+        assertEquals(new Position.SimplePosition(1, 0), lineMap.position(7));
+        assertEquals(new Position.SimplePosition(1, 7), lineMap.position(14));
+        // \r\n are two line breaks
+        assertEquals(new Position.SimplePosition(3, 0), lineMap.position(18));
+    }
+
+    @Test
+    void columnsCountUtf16CodeUnits() {
+        // two, three and four bytes in UTF-8, the last one is a surrogate pair in UTF-16
+        String line = "ä € 😀 x";
+        LineMap lineMap = lineMap("int a;\n" + line + "\n");
+        int lineStart = "int a;\n".length();
+        int x = lineStart + line.getBytes(StandardCharsets.UTF_8).length - 1;
+        assertEquals(new Position.SimplePosition(1, line.indexOf('x')), lineMap.position(x));
+        assertEquals(new Position.SimplePosition(1, line.length()), lineMap.position(x + 1));
+        assertEquals(new Position.SimplePosition(1, 2), lineMap.position(lineStart + 3));
+        assertEquals(new Position.SimplePosition(2, 0), lineMap.position(x + 2));
+    }
+
+    private static LineMap lineMap(String source) {
+        return new LineMap(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)));
+    }
+}
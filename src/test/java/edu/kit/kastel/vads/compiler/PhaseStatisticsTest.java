@@ -0,0 +1,55 @@
+package edu.kit.kastel.vads.compiler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhaseStatisticsTest {
+    private static final Pattern ALLOCATED = Pattern.compile("\"name\":\"parallel\",\"nanos\":\\d+,\"allocatedBytes\":(-?\\d+)");
+
+    @Test
+    void measurementsWithTheSameNameAreAddedUp() {
+        PhaseStatistics statistics = PhaseStatistics.enabled();
+        statistics.measure("first", () -> 2, size -> size, "nodes");
+        statistics.measure("second", () -> 1, size -> size, "nodes");
+        statistics.measure("first", () -> 3, size -> size, "nodes");
+        statistics.add("parts", 5);
+        statistics.add("parts", 7);
+
+        String json = statistics.toJson();
+        assertTrue(json.matches("\\{\"phases\":\\[\\{\"name\":\"first\",\"nanos\":\\d+,\"allocatedBytes\":\\d+,\"size\":5,\"unit\":\"nodes\"},"
+                                + "\\{\"name\":\"second\",.*\"size\":1,\"unit\":\"nodes\"},"
+                                + "\\{\"name\":\"parts\",\"nanos\":12,\"allocatedBytes\":-1}]}"), json);
+        // one row per name, below the header
+        assertEquals(4, statistics.toText().lines().count());
+    }
+
+    @Test
+    void allocationsAreMeasuredOnEachThread() {
+        PhaseStatistics statistics = PhaseStatistics.enabled();
+        int tasks = 16;
+        int bytes = 1 << 20;
+        IntStream.range(0, tasks).parallel()
+                .forEach(_ -> statistics.measure("parallel", () -> new byte[bytes], array -> array.length, "bytes"));
+
+        Matcher matcher = ALLOCATED.matcher(statistics.toJson());
+        assertTrue(matcher.find(), statistics.toJson());
+        long allocated = Long.parseLong(matcher.group(1));
+        if (allocated >= 0) {
+            // -1 if the JVM can't measure allocations
+            assertTrue(allocated >= (long) tasks * bytes, "allocated " + allocated);
+        }
+        assertTrue(statistics.toJson().contains("\"size\":" + tasks * bytes));
+    }
+
+    @Test
+    void disabledStatisticsRecordNothing() {
+        int result = PhaseStatistics.DISABLED.measure("phase", () -> 3);
+        assertEquals(3, result);
+        assertEquals("{\"phases\":[]}", PhaseStatistics.DISABLED.toJson());
+    }
+}
@@ -0,0 +1,27 @@
+package edu.kit.kastel.vads.compiler.batch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchCompilerTest {
+
+    @Test
+    void invalidWorkerCountIsIgnored() {
+        String previous = System.getProperty("batchWorkers");
+        try {
+            System.setProperty("batchWorkers", " 3 ");
+            assertEquals(3, BatchCompiler.workers());
+            for (String workers : new String[] {"four", "", "0", "-2", "99999999999"}) {
+                System.setProperty("batchWorkers", workers);
+                assertEquals(Runtime.getRuntime().availableProcessors(), BatchCompiler.workers(), workers);
+            }
+        } finally {
+            if (previous == null) {
+                System.clearProperty("batchWorkers");
+            } else {
+                System.setProperty("batchWorkers", previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package edu.kit.kastel.vads.compiler.generator;
+
+import edu.kit.kastel.vads.compiler.generator.ProgramGenerator.GeneratedProgram;
+import edu.kit.kastel.vads.compiler.generator.ProgramGenerator.Settings;
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.parser.Parser;
+import edu.kit.kastel.vads.compiler.parser.TokenSource;
+import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
+import edu.kit.kastel.vads.compiler.semantic.SemanticAnalysis;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Checks that the generated trees are exactly what the [Parser] produces for the generated source,
+/// including the spans and the ids of the names.
+class ProgramGeneratorTest {
+    private static final List<Settings> SETTINGS = List.of(
+            Settings.ofSize(1),
+            Settings.ofSize(2),
+            Settings.ofSize(50),
+            Settings.ofSize(300),
+            new Settings(40, 1, 1, 0),
+            new Settings(40, 39, 39, 1),
+            new Settings(20, 5, 2, 6)
+    );
+
+    @Test
+    void treeMatchesParsedSource() {
+        for (Settings settings : SETTINGS) {
+            for (long seed = 0; seed < 10; seed++) {
+                GeneratedProgram program = new ProgramGenerator(seed, settings).generate();
+                ProgramTree parsed = new Parser(new TokenSource(Lexer.forString(program.source()))).parseProgram();
+                assertEquals(parsed, program.tree(), settings + ", seed " + seed + "\n" + program.source());
+            }
+        }
+    }
+
+    @Test
+    void programsPassSemanticAnalysis() {
+        for (Settings settings : SETTINGS) {
+            for (long seed = 0; seed < 10; seed++) {
+                GeneratedProgram program = new ProgramGenerator(seed, settings).generate();
+                String context = settings + ", seed " + seed;
+                assertDoesNotThrow(() -> new SemanticAnalysis(program.tree()).analyze(), context);
+            }
+        }
+    }
+
+    @Test
+    void sameSeedSameProgram() {
+        Settings settings = Settings.ofSize(100);
+        assertEquals(new ProgramGenerator(7, settings).generate().source(),
+                new ProgramGenerator(7, settings).generate().source());
+        assertNotEquals(new ProgramGenerator(7, settings).generate().source(),
+                new ProgramGenerator(8, settings).generate().source());
+    }
+
+    @Test
+    void generatorIsSingleUse() {
+        ProgramGenerator generator = new ProgramGenerator(0, Settings.ofSize(5));
+        generator.generate();
+        assertThrows(IllegalStateException.class, generator::generate);
+    }
+}
@@ -0,0 +1,102 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.StartNode;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static edu.kit.kastel.vads.compiler.ir.optimize.OptimizerTestSupport.result;
+import static edu.kit.kastel.vads.compiler.ir.optimize.OptimizerTestSupport.sideEffectChain;
+import static edu.kit.kastel.vads.compiler.ir.optimize.OptimizerTestSupport.translate;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlgebraicSimplificationTest {
+    private final IrGraph graph = new IrGraph("test");
+    private final Block block = this.graph.startBlock();
+    private final Node sideEffect = new ProjNode(this.block, new StartNode(this.block), ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+    // a value that is not known at compile time
+    private final Node x = new Phi(this.block);
+    private final AlgebraicSimplification simplification = new AlgebraicSimplification();
+
+    @Test
+    void addZero() {
+        assertSame(this.x, simplify(new AddNode(this.block, this.x, constant(0))));
+        assertSame(this.x, simplify(new AddNode(this.block, constant(0), this.x)));
+    }
+
+    @Test
+    void subZeroAndSelf() {
+        assertSame(this.x, simplify(new SubNode(this.block, this.x, constant(0))));
+        assertEquals(0, assertInstanceOf(ConstIntNode.class, simplify(new SubNode(this.block, this.x, this.x))).value());
+    }
+
+    @Test
+    void doubleNegation() {
+        Node negated = new SubNode(this.block, constant(0), this.x);
+        assertSame(negated, simplify(negated));
+        assertSame(this.x, simplify(new SubNode(this.block, constant(0), negated)));
+    }
+
+    @Test
+    void mulOneAndZero() {
+        assertSame(this.x, simplify(new MulNode(this.block, this.x, constant(1))));
+        assertSame(this.x, simplify(new MulNode(this.block, constant(1), this.x)));
+        ConstIntNode zero = constant(0);
+        assertSame(zero, simplify(new MulNode(this.block, this.x, zero)));
+        assertSame(zero, simplify(new MulNode(zero.block(), zero, this.x)));
+    }
+
+    @Test
+    void divAndModByOne() {
+        assertSame(this.x, simplify(new DivNode(this.block, this.x, constant(1), this.sideEffect)));
+        Node mod = simplify(new ModNode(this.block, this.x, constant(1), this.sideEffect));
+        assertEquals(0, assertInstanceOf(ConstIntNode.class, mod).value());
+    }
+
+    @Test
+    void divAndModByMinusOneAreKept() {
+        // x / -1 traps for x == Integer.MIN_VALUE
+        Node div = new DivNode(this.block, this.x, constant(-1), this.sideEffect);
+        Node mod = new ModNode(this.block, this.x, constant(-1), this.sideEffect);
+        assertSame(div, simplify(div));
+        assertSame(mod, simplify(mod));
+    }
+
+    @Test
+    void doubleNegationInSource() {
+        IrGraph graph = translate("int main() { int x = 1 / 0; return - - x; }");
+        Node div = sideEffectChain(graph).getFirst();
+        ProjNode projection = assertInstanceOf(ProjNode.class, result(graph));
+        assertSame(div, projection.predecessor(ProjNode.IN));
+    }
+
+    @Test
+    void divAndModByOneAreNotOnSideEffectChain() {
+        IrGraph graph = translate("int main() { int x = 1 / 0; x /= 1; int y = x % 1; return x / 1 + y; }");
+        // only the division by zero is left
+        List<Node> chain = sideEffectChain(graph);
+        assertEquals(1, chain.size());
+        DivNode div = assertInstanceOf(DivNode.class, chain.getFirst());
+        assertEquals(0, assertInstanceOf(ConstIntNode.class, div.predecessor(DivNode.RIGHT)).value());
+        assertSame(div, result(graph).predecessor(ProjNode.IN));
+    }
+
+    private ConstIntNode constant(int value) {
+        return new ConstIntNode(this.block, value);
+    }
+
+    private Node simplify(Node node) {
+        return this.simplification.transform(node);
+    }
+}
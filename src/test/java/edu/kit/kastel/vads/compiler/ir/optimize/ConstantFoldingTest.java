@@ -0,0 +1,109 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.StartNode;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static edu.kit.kastel.vads.compiler.ir.optimize.OptimizerTestSupport.result;
+import static edu.kit.kastel.vads.compiler.ir.optimize.OptimizerTestSupport.sideEffectChain;
+import static edu.kit.kastel.vads.compiler.ir.optimize.OptimizerTestSupport.translate;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConstantFoldingTest {
+    private final IrGraph graph = new IrGraph("test");
+    private final Block block = this.graph.startBlock();
+    private final Node sideEffect = new ProjNode(this.block, new StartNode(this.block), ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+    private final ConstantFolding folding = new ConstantFolding();
+
+    @Test
+    void addWrapsAround() {
+        assertFolded(Integer.MIN_VALUE, new AddNode(this.block, constant(Integer.MAX_VALUE), constant(1)));
+        assertFolded(-2, new AddNode(this.block, constant(Integer.MAX_VALUE), constant(Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void subWrapsAround() {
+        assertFolded(Integer.MAX_VALUE, new SubNode(this.block, constant(Integer.MIN_VALUE), constant(1)));
+        assertFolded(Integer.MIN_VALUE, new SubNode(this.block, constant(0), constant(Integer.MIN_VALUE)));
+    }
+
+    @Test
+    void mulWrapsAround() {
+        assertFolded(0, new MulNode(this.block, constant(65536), constant(65536)));
+        assertFolded(-2, new MulNode(this.block, constant(Integer.MAX_VALUE), constant(2)));
+        assertFolded(Integer.MIN_VALUE, new MulNode(this.block, constant(Integer.MIN_VALUE), constant(-1)));
+    }
+
+    @Test
+    void divAndModTruncateTowardsZero() {
+        assertFolded(-3, new DivNode(this.block, constant(-7), constant(2), this.sideEffect));
+        assertFolded(-1, new ModNode(this.block, constant(-7), constant(2), this.sideEffect));
+        assertFolded(Integer.MIN_VALUE, new DivNode(this.block, constant(Integer.MIN_VALUE), constant(1), this.sideEffect));
+        assertFolded(0, new ModNode(this.block, constant(Integer.MIN_VALUE), constant(-2), this.sideEffect));
+    }
+
+    @Test
+    void trappingDivAndModAreKept() {
+        List<Node> trapping = List.of(
+                new DivNode(this.block, constant(Integer.MIN_VALUE), constant(-1), this.sideEffect),
+                new ModNode(this.block, constant(Integer.MIN_VALUE), constant(-1), this.sideEffect),
+                new DivNode(this.block, constant(5), constant(0), this.sideEffect),
+                new ModNode(this.block, constant(5), constant(0), this.sideEffect));
+        for (Node node : trapping) {
+            assertSame(node, this.folding.transform(node));
+        }
+    }
+
+    @Test
+    void trappingDivStaysOnSideEffectChain() {
+        IrGraph graph = translate("int main() { return -2147483648 / -1; }");
+        List<Node> chain = sideEffectChain(graph);
+        assertEquals(1, chain.size());
+        DivNode div = assertInstanceOf(DivNode.class, chain.getFirst());
+        assertSame(div, result(graph).predecessor(ProjNode.IN));
+    }
+
+    @Test
+    void unusedTrappingDivStaysOnSideEffectChain() {
+        IrGraph graph = translate("int main() { int a = 5; return (a / 0) * 0; }");
+        assertEquals(0, assertInstanceOf(ConstIntNode.class, result(graph)).value());
+        List<Node> chain = sideEffectChain(graph);
+        assertEquals(1, chain.size());
+        assertInstanceOf(DivNode.class, chain.getFirst());
+    }
+
+    @Test
+    void trappingModStaysOnSideEffectChain() {
+        IrGraph graph = translate("int main() { int a = 0; a %= 0; return 1; }");
+        assertEquals(1, sideEffectChain(graph).size());
+        assertInstanceOf(ModNode.class, sideEffectChain(graph).getFirst());
+    }
+
+    @Test
+    void foldedDivIsNotOnSideEffectChain() {
+        IrGraph graph = translate("int main() { return 7 / 2 + 7 % 2; }");
+        assertEquals(4, assertInstanceOf(ConstIntNode.class, result(graph)).value());
+        assertEquals(List.of(), sideEffectChain(graph));
+    }
+
+    private ConstIntNode constant(int value) {
+        return new ConstIntNode(this.block, value);
+    }
+
+    private void assertFolded(int expected, Node node) {
+        Node folded = this.folding.transform(node);
+        assertEquals(expected, assertInstanceOf(ConstIntNode.class, folded).value());
+        assertSame(this.block, folded.block());
+    }
+}
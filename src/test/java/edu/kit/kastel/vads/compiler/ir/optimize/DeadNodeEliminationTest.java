@@ -0,0 +1,136 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.StartNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static edu.kit.kastel.vads.compiler.ir.optimize.OptimizerTestSupport.result;
+import static edu.kit.kastel.vads.compiler.ir.optimize.OptimizerTestSupport.sideEffectChain;
+import static edu.kit.kastel.vads.compiler.ir.optimize.OptimizerTestSupport.translate;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadNodeEliminationTest {
+
+    @Test
+    void overwrittenValueIsRemoved() {
+        IrGraph graph = translate("int main() { int a = 7; a = 8; return a; }");
+        Node seven = constant(graph, 7);
+        Node eight = constant(graph, 8);
+        assertEquals(0, graph.successorCount(seven));
+
+        assertEquals(1, new DeadNodeElimination(graph).run());
+        assertNull(graph.node(seven.id()));
+        assertSame(eight, graph.node(eight.id()));
+        assertSame(eight, result(graph));
+        assertEdgesConsistent(graph);
+    }
+
+    @Test
+    void unusedTrappingDivisionIsKept() {
+        IrGraph graph = translate("int main() { int a = 1; int b = a / 0; return 2; }");
+        DivNode div = single(graph, DivNode.class);
+        ProjNode quotient = projection(graph, div, ProjNode.SimpleProjectionInfo.RESULT);
+
+        new DeadNodeElimination(graph).run();
+        assertSame(div, graph.node(div.id()));
+        assertEquals(List.of(div), sideEffectChain(graph));
+        // only the side effect of the division is used
+        assertNull(graph.node(quotient.id()));
+        assertEdgesConsistent(graph);
+    }
+
+    @Test
+    void successorsOfRemovedNodesAreCompacted() {
+        IrGraph graph = translate("int main() { int a = 1 / 0; int b = a + 1; return 3; }");
+        DivNode div = single(graph, DivNode.class);
+        AddNode add = single(graph, AddNode.class);
+        Node one = div.predecessor(DivNode.LEFT);
+        ProjNode sideEffect = projection(graph, div, ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+        // the dividend and the summand, and both projections of the division
+        assertEquals(List.of(div, add), List.copyOf(graph.successors(one)));
+        assertEquals(2, graph.successorCount(div));
+
+        new DeadNodeElimination(graph).run();
+        assertNull(graph.node(add.id()));
+        // the duplicate constant that value numbering replaced is removed as well
+        assertSame(one, constant(graph, 1));
+        assertEquals(1, graph.successorCount(one));
+        assertSame(div, graph.successorAt(one, 0));
+        assertEquals(1, graph.successorCount(div));
+        assertSame(sideEffect, graph.successorAt(div, 0));
+        assertEdgesConsistent(graph);
+    }
+
+    @Test
+    void retainAllRejectsDeadPredecessors() {
+        IrGraph graph = translate("int main() { int a = 1 / 0; return a; }");
+        StartNode start = single(graph, StartNode.class);
+        BitSet live = new BitSet();
+        live.set(0, graph.nodeCount());
+        live.clear(start.id());
+
+        assertThrows(IllegalArgumentException.class, () -> graph.retainAll(live));
+        // nothing was removed
+        assertEquals(nodes(graph, Node.class).size(), graph.nodeCount());
+        assertEdgesConsistent(graph);
+    }
+
+    /// Asserts that the successors of each node are exactly the nodes that have it as predecessor, once per edge.
+    private static void assertEdgesConsistent(IrGraph graph) {
+        int[] uses = new int[graph.nodeCount()];
+        for (Node node : nodes(graph, Node.class)) {
+            for (int i = 0; i < node.predecessorCount(); i++) {
+                assertSame(node.predecessor(i), graph.node(node.predecessor(i).id()), "removed predecessor of " + node);
+                uses[node.predecessor(i).id()]++;
+            }
+            assertSame(node.block(), graph.node(node.block().id()), "removed block of " + node);
+        }
+        for (Node node : nodes(graph, Node.class)) {
+            assertEquals(uses[node.id()], graph.successorCount(node), "successors of " + node);
+            for (Node successor : graph.successors(node)) {
+                assertSame(successor, graph.node(successor.id()), "removed successor of " + node);
+                assertTrue(successor.predecessors().contains(node));
+            }
+        }
+    }
+
+    private static ConstIntNode constant(IrGraph graph, int value) {
+        List<ConstIntNode> constants = nodes(graph, ConstIntNode.class).stream()
+                .filter(constant -> constant.value() == value)
+                .toList();
+        assertEquals(1, constants.size(), "constants " + value);
+        return constants.getFirst();
+    }
+
+    private static ProjNode projection(IrGraph graph, Node in, ProjNode.SimpleProjectionInfo info) {
+        return nodes(graph, ProjNode.class).stream()
+                .filter(projection -> projection.predecessor(ProjNode.IN) == in && projection.projectionInfo() == info)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static <N extends Node> N single(IrGraph graph, Class<N> type) {
+        List<N> nodes = nodes(graph, type);
+        assertEquals(1, nodes.size(), type.getSimpleName());
+        return nodes.getFirst();
+    }
+
+    private static <N extends Node> List<N> nodes(IrGraph graph, Class<N> type) {
+        List<N> nodes = new ArrayList<>();
+        for (int id = 0; id < graph.nodeCount(); id++) {
+            if (type.isInstance(graph.node(id))) {
+                nodes.add(type.cast(graph.node(id)));
+            }
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,108 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
+import edu.kit.kastel.vads.compiler.ir.node.StartNode;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Runs the pass on a diamond: the start block branches to `left` and `right`, which both continue in `join`.
+/// `join` is dominated by the start block only.
+class GlobalValueNumberingTest {
+    private final IrGraph graph = new IrGraph("test");
+    private final Block start = this.graph.startBlock();
+    private final StartNode startNode = new StartNode(this.start);
+    private final Node memory = new ProjNode(this.start, this.startNode, ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+    private final Node x = new ConstIntNode(this.start, 3);
+    private final Node y = new ConstIntNode(this.start, 5);
+    // there are no jumps yet, any node of the start block will do as the control flow predecessor
+    private final Block left = block(this.startNode);
+    private final Block right = block(this.x);
+
+    @Test
+    void siblingBlocksAreKept() {
+        Node leftSub = new SubNode(this.left, this.x, this.y);
+        Node rightSub = new SubNode(this.right, this.x, this.y);
+        Block join = join(leftSub, rightSub);
+        Node joinSub = new SubNode(join, this.x, this.y);
+        returnFrom(join, this.memory, joinSub);
+
+        assertEquals(0, new GlobalValueNumbering(this.graph).run());
+        assertEquals(1, this.graph.successorCount(leftSub));
+        assertEquals(1, this.graph.successorCount(rightSub));
+        assertEquals(1, this.graph.successorCount(joinSub));
+    }
+
+    @Test
+    void dominatedDuplicatesAreReplaced() {
+        Node sum = new AddNode(this.start, this.x, this.y);
+        // commutative, so in any order
+        Node leftSum = new AddNode(this.left, this.y, this.x);
+        Node rightSum = new AddNode(this.right, this.x, this.y);
+        Block join = join(leftSum, rightSum);
+        Node joinSum = new AddNode(join, this.x, this.y);
+        Node joinProduct = new MulNode(join, joinSum, sum);
+        returnFrom(join, this.memory, joinProduct);
+
+        assertEquals(3, new GlobalValueNumbering(this.graph).run());
+        for (Node replaced : List.of(leftSum, rightSum, joinSum)) {
+            assertEquals(0, this.graph.successorCount(replaced), replaced + " should have been replaced");
+        }
+        assertSame(sum, joinProduct.predecessor(MulNode.LEFT));
+        assertSame(sum, joinProduct.predecessor(MulNode.RIGHT));
+    }
+
+    @Test
+    void divIsMergedOnlyWithTheSameSideEffect() {
+        Node div = new DivNode(this.start, this.x, this.y, this.memory);
+        Node divResult = new ProjNode(this.start, div, ProjNode.SimpleProjectionInfo.RESULT);
+        Node divMemory = new ProjNode(this.start, div, ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+        // the same operands and side effect as div
+        Node sameDiv = new DivNode(this.left, this.x, this.y, this.memory);
+        Node sameDivResult = new ProjNode(this.left, sameDiv, ProjNode.SimpleProjectionInfo.RESULT);
+        // the same operands, but after div
+        Node laterDiv = new DivNode(this.right, this.x, this.y, divMemory);
+        Node laterDivResult = new ProjNode(this.right, laterDiv, ProjNode.SimpleProjectionInfo.RESULT);
+        Node laterDivMemory = new ProjNode(this.right, laterDiv, ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+        Node leftUse = new AddNode(this.left, sameDivResult, divResult);
+        Node rightUse = new SubNode(this.right, laterDivResult, divResult);
+        Block join = join(leftUse, rightUse);
+        returnFrom(join, laterDivMemory, new MulNode(join, leftUse, rightUse));
+
+        // sameDiv and its result projection
+        assertEquals(2, new GlobalValueNumbering(this.graph).run());
+        assertEquals(0, this.graph.successorCount(sameDiv));
+        assertSame(divResult, leftUse.predecessor(AddNode.LEFT));
+        assertSame(laterDiv, laterDivResult.predecessor(ProjNode.IN));
+        assertSame(laterDivResult, rightUse.predecessor(SubNode.LEFT));
+    }
+
+    private Block block(Node controlFlowPredecessor) {
+        Block block = new Block(this.graph);
+        block.addPredecessor(controlFlowPredecessor);
+        return block;
+    }
+
+    /// {@return a block that `left` and `right` continue in, after returning `leftValue` and `rightValue`}
+    private Block join(Node leftValue, Node rightValue) {
+        Block join = new Block(this.graph);
+        join.addPredecessor(new ReturnNode(this.left, this.memory, leftValue));
+        join.addPredecessor(new ReturnNode(this.right, this.memory, rightValue));
+        return join;
+    }
+
+    private void returnFrom(Block block, Node sideEffect, Node value) {
+        this.graph.endBlock().addPredecessor(new ReturnNode(block, sideEffect, value));
+    }
+}
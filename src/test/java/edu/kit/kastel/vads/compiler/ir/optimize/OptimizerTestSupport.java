@@ -0,0 +1,65 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.SsaTranslation;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
+import edu.kit.kastel.vads.compiler.ir.node.StartNode;
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.lexer.TokenStore;
+import edu.kit.kastel.vads.compiler.parser.Parser;
+import edu.kit.kastel.vads.compiler.parser.TokenSource;
+import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
+import edu.kit.kastel.vads.compiler.semantic.SemanticAnalysis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class OptimizerTestSupport {
+    private OptimizerTestSupport() {
+
+    }
+
+    /// {@return the graph of the only function of `source`, translated with the optimizers the compiler uses}
+    static IrGraph translate(String source) {
+        ProgramTree program = new Parser(new TokenSource(TokenStore.lexAll(Lexer.forString(source)))).parseProgram();
+        new SemanticAnalysis(program).analyze();
+        Optimizer optimizer = new ConstantFolding().andThen(new AlgebraicSimplification()).andThen(new LocalValueNumbering());
+        return new SsaTranslation((FunctionTree) program.topLevelTrees().getFirst(), optimizer).translate();
+    }
+
+    /// {@return the only return of `graph`}
+    static ReturnNode returnNode(IrGraph graph) {
+        return (ReturnNode) graph.endBlock().predecessor(0);
+    }
+
+    /// {@return the value returned by the only return of `graph`}
+    static Node result(IrGraph graph) {
+        return returnNode(graph).predecessor(ReturnNode.RESULT);
+    }
+
+    /// {@return the divisions and modulos on the side effect chain of the only return of `graph`, the last one first}
+    static List<Node> sideEffectChain(IrGraph graph) {
+        List<Node> chain = new ArrayList<>();
+        Node current = returnNode(graph).predecessor(ReturnNode.SIDE_EFFECT);
+        while (!(current instanceof StartNode)) {
+            switch (current) {
+                case ProjNode projection -> current = projection.predecessor(ProjNode.IN);
+                case DivNode div -> {
+                    chain.add(div);
+                    current = div.predecessor(DivNode.SIDE_EFFECT);
+                }
+                case ModNode mod -> {
+                    chain.add(mod);
+                    current = mod.predecessor(ModNode.SIDE_EFFECT);
+                }
+                default -> throw new AssertionError("unexpected node on the side effect chain: " + current);
+            }
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,89 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Checks that [ParallelLexer#lexAll(Lexer, int)] finds the same tokens as [TokenStore#lexAll(Lexer)].
+/// The chunks are split at the line breaks closest to equal parts,
+/// so the sources below consist of many short lines to put seams into every construct.
+class ParallelLexerTest {
+    private static final int MAX_CHUNKS = 8;
+
+    @Test
+    void nestedCommentAcrossOneSeam() {
+        assertSameTokens("int main() {\n" + "/* outer\n /* inner */\n".repeat(3) + "still outer */\n".repeat(3)
+                         + "return 0;\n}\n");
+    }
+
+    @Test
+    void nestedCommentAcrossSeveralSeams() {
+        assertSameTokens("int a = 1;\n/* level 1\n" + " x + y;\n /* level 2\n".repeat(20) + " return a;\n */\n".repeat(20)
+                         + "*/\nint b = a;\n");
+    }
+
+    @Test
+    void commentClosedByLineCommentMarkersAtSeams() {
+        // inside a block comment, // doesn't start a line comment, so */ on the same line closes the comment
+        assertSameTokens("/*\n" + "// */ int a = 1;\n/*\n".repeat(30) + "*/\n");
+    }
+
+    @Test
+    void unterminatedComment() {
+        assertSameTokens("int main() {\nreturn 0;\n}\n/* never closed\n" + "int b = 2;\n".repeat(40));
+        assertSameTokens("int a;\n/* /* only the inner one is closed */\n" + "a = a + 1;\n".repeat(40));
+    }
+
+    @Test
+    void lineCommentsAtSeams() {
+        assertSameTokens("// /* not a block comment\nint a = 1;\n".repeat(40));
+        assertSameTokens("int a = 1; // trailing */ text\n// whole line\n".repeat(40));
+    }
+
+    @Test
+    void identifiersRepeatedAcrossChunks() {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            source.append("int name").append(i % 7).append(" = shared + name").append((i * 3) % 11).append(";\n");
+        }
+        assertSameTokens(source.toString());
+    }
+
+    @Test
+    void generatedSources() {
+        String[] lines = {"int a = 0x1F;", "a += 2147483648;", "/* open", "/* nested /*", "*/", "*/ b = a;", "// */",
+                "// line", "return a % b;", "x = -y / (z * 3);", "   ", "ä = 1;", "int b = 007;", "a = a /*inline*/ + 1;"};
+        for (int seed = 0; seed < 50; seed++) {
+            Random random = new Random(seed);
+            StringBuilder source = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                source.append(lines[random.nextInt(lines.length)]).append('\n');
+            }
+            assertSameTokens(source.toString());
+        }
+    }
+
+    private static void assertSameTokens(String source) {
+        TokenStore expected = TokenStore.lexAll(Lexer.forString(source));
+        for (int chunks = 2; chunks <= MAX_CHUNKS; chunks++) {
+            Lexer lexer = Lexer.forString(source);
+            TokenStore actual = ParallelLexer.lexAll(lexer, chunks);
+            String context = chunks + " chunks, " + source;
+            assertEquals(expected.limit(), actual.limit(), "token count with " + context);
+            for (int i = 0; i < expected.limit(); i++) {
+                String token = "token " + i + " with " + context;
+                assertEquals(expected.kind(i), actual.kind(i), token);
+                assertEquals(expected.start(i), actual.start(i), token);
+                assertEquals(expected.end(i), actual.end(i), token);
+                if (expected.kind(i) == TokenKind.IDENTIFIER) {
+                    assertEquals(expected.symbol(i), actual.symbol(i), token);
+                    assertEquals(expected.name(i).asString(), actual.name(i).asString(), token);
+                } else if (TokenKind.isNumberLiteral(expected.kind(i))) {
+                    assertEquals(expected.value(i), actual.value(i), token);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package edu.kit.kastel.vads.compiler.parser;
+
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.parser.ast.ExpressionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.IdentExpressionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.NegateTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ReturnTree;
+import edu.kit.kastel.vads.compiler.parser.ast.StatementTree;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Checks the trees built by [Parser#parseExpression()] and [Parser#parseLValue()].
+/// The [Printer] parenthesizes both operands of every binary operation, so it shows the exact tree.
+class ParserTest {
+    private static final int DEPTH = 100_000;
+
+    @Test
+    void precedence() {
+        assertEquals("(a) + ((b) * (c))", expression("a + b * c"));
+        assertEquals("((a) * (b)) + (c)", expression("a * b + c"));
+        assertEquals("((a) % (b)) - ((c) / (d))", expression("a % b - c / d"));
+        assertEquals("((a) + (b)) * (c)", expression("(a + b) * c"));
+    }
+
+    @Test
+    void leftAssociativity() {
+        assertEquals("((a) - (b)) - (c)", expression("a - b - c"));
+        assertEquals("((a) / (b)) % (c)", expression("a / b % c"));
+        assertEquals("(((a) + (b)) - (c)) + (d)", expression("a + b - c + d"));
+        assertEquals("(a) - ((b) - (c))", expression("a - (b - c)"));
+    }
+
+    @Test
+    void negation() {
+        assertEquals("-(-(x))", expression("- - x"));
+        assertEquals("(-(x)) * (y)", expression("-x * y"));
+        assertEquals("-((a) + (b))", expression("-(a + b)"));
+        assertEquals("(a) * (-(b))", expression("a * -b"));
+        assertEquals("(a) - (-(1))", expression("a - -1"));
+    }
+
+    @Test
+    void parenthesizedLValue() {
+        assertEquals("x = 1;\n", Printer.print(statement("((x)) = 1;")));
+        assertEquals("x += (y) * (2);\n", Printer.print(statement("(x) += y * 2;")));
+    }
+
+    @Test
+    void unclosedParenthesis() {
+        ParseException exception = assertThrows(ParseException.class, () -> parse("int main() { return (a; }"));
+        assertEquals("expected separator ')' but got Separator[type=;, span=[0:22|0:23]]", exception.getMessage());
+    }
+
+    @Test
+    void missingExpression() {
+        ParseException exception = assertThrows(ParseException.class, () -> parse("int main() { a = ; }"));
+        assertEquals("invalid factor Separator[type=;, span=[0:17|0:18]]", exception.getMessage());
+    }
+
+    @Test
+    void deepParentheses() {
+        ExpressionTree expression = returned("(".repeat(DEPTH) + "x" + ")".repeat(DEPTH));
+        assertInstanceOf(IdentExpressionTree.class, expression);
+    }
+
+    @Test
+    void deepNegations() {
+        ExpressionTree expression = returned("- ".repeat(DEPTH) + "x");
+        // walked iteratively, as printing or comparing records recurses for every level
+        for (int i = 0; i < DEPTH; i++) {
+            expression = assertInstanceOf(NegateTree.class, expression).expression();
+        }
+        assertInstanceOf(IdentExpressionTree.class, expression);
+    }
+
+    private static String expression(String expression) {
+        return Printer.print(returned(expression));
+    }
+
+    private static ExpressionTree returned(String expression) {
+        return assertInstanceOf(ReturnTree.class, statement("return " + expression + ";")).expression();
+    }
+
+    private static StatementTree statement(String statement) {
+        ProgramTree program = parse("int main() { " + statement + " }");
+        return program.topLevelTrees().getFirst().body().statements().getFirst();
+    }
+
+    private static ProgramTree parse(String source) {
+        return new Parser(new TokenSource(Lexer.forString(source))).parseProgram();
+    }
+}
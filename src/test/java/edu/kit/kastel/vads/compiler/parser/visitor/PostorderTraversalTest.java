@@ -0,0 +1,211 @@
+package edu.kit.kastel.vads.compiler.parser.visitor;
+
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.parser.Parser;
+import edu.kit.kastel.vads.compiler.parser.TokenSource;
+import edu.kit.kastel.vads.compiler.parser.ast.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Checks that [PostorderTraversal] visits trees in the same order as [RecursivePostorderVisitor].
+class PostorderTraversalTest {
+    private static final int DEPTH = 100_000;
+    private static final String ALL_KINDS = """
+            int main() {
+                int a;
+                int b = 0x1F;
+                ((a)) = -b * (b + 2);
+                a %= b;
+                return a - -a / 1;
+            }
+            """;
+
+    @Test
+    void sameOrderAsRecursiveVisitor() {
+        ProgramTree program = parse(ALL_KINDS);
+        List<Tree> expected = recursive(program);
+        Recorder recorder = new Recorder(_ -> false);
+        Tree result = PostorderTraversal.traverse(program, recorder, Unit.INSTANCE);
+        assertVisitedSame(expected, recorder.visited);
+        assertSame(program, result);
+        // assignments, binary operations, blocks, declarations, functions, identifiers, literals, lvalues, names,
+        // negations, programs, returns and types
+        Set<Class<?>> kinds = new HashSet<>();
+        for (Tree tree : expected) {
+            kinds.add(tree.getClass());
+        }
+        assertEquals(13, kinds.size(), kinds.toString());
+    }
+
+    @Test
+    void severalFunctionsAndEmptyBlocks() {
+        FunctionTree first = parse("int main() { }").topLevelTrees().getFirst();
+        FunctionTree second = parse(ALL_KINDS).topLevelTrees().getFirst();
+        ProgramTree program = new ProgramTree(List.of(first, second, first));
+        Recorder recorder = new Recorder(_ -> false);
+        PostorderTraversal.traverse(program, recorder, Unit.INSTANCE);
+        assertVisitedSame(recursive(program), recorder.visited);
+    }
+
+    @Test
+    void subtreesVisitedBeforeTheTree() {
+        ExpressionTree expression = returned(parse("int main() { return -x * 2; }"));
+        Recorder recorder = new Recorder(_ -> false);
+        PostorderTraversal.traverse(expression, recorder, Unit.INSTANCE);
+        assertEquals(List.of("NameTree", "IdentExpressionTree", "NegateTree", "LiteralTree", "BinaryOperationTree"),
+                recorder.kinds());
+    }
+
+    @Test
+    void skippedSubtreesAreNotVisited() {
+        ProgramTree program = parse("int main() { return -(a + b) * c; }");
+        Recorder recorder = new Recorder(tree -> tree instanceof NegateTree);
+        PostorderTraversal.traverse(program, recorder, Unit.INSTANCE);
+        assertEquals(List.of("TypeTree", "NameTree", "NameTree", "IdentExpressionTree", "BinaryOperationTree",
+                "ReturnTree", "BlockTree", "FunctionTree", "ProgramTree"), recorder.kinds());
+        // every reached tree is entered once, but not the subtrees of skipped ones
+        assertEquals(recorder.visited.size() + 1, recorder.entered.size());
+        assertInstanceOf(NegateTree.class, recorder.entered.get(7));
+    }
+
+    @Test
+    void skippedRoot() {
+        ProgramTree program = parse(ALL_KINDS);
+        Recorder recorder = new Recorder(tree -> tree == program);
+        assertNull(PostorderTraversal.traverse(program, recorder, Unit.INSTANCE));
+        assertEquals(List.of(), recorder.visited);
+        assertEquals(List.of(program), recorder.entered);
+    }
+
+    @Test
+    void deepTree() {
+        ProgramTree program = parse("int main() { return " + "-(".repeat(DEPTH) + "x" + ")".repeat(DEPTH) + "; }");
+        Recorder recorder = new Recorder(_ -> false);
+        PostorderTraversal.traverse(program, recorder, Unit.INSTANCE);
+        // type and name of the function, name of x, x, the negations, return, block, function, program
+        assertEquals(DEPTH + 8, recorder.visited.size());
+        ExpressionTree outermost = returned(program);
+        assertSame(outermost, recorder.visited.get(DEPTH + 3));
+        assertSame(assertInstanceOf(NegateTree.class, outermost).expression(), recorder.visited.get(DEPTH + 2));
+    }
+
+    private static List<Tree> recursive(Tree tree) {
+        Recorder recorder = new Recorder(_ -> false);
+        tree.accept(new RecursivePostorderVisitor<>(recorder), Unit.INSTANCE);
+        return recorder.visited;
+    }
+
+    private static void assertVisitedSame(List<Tree> expected, List<Tree> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), actual.get(i), "tree " + i);
+        }
+    }
+
+    private static ExpressionTree returned(ProgramTree program) {
+        BlockTree body = program.topLevelTrees().getFirst().body();
+        return assertInstanceOf(ReturnTree.class, body.statements().getLast()).expression();
+    }
+
+    private static ProgramTree parse(String source) {
+        return new Parser(new TokenSource(Lexer.forString(source))).parseProgram();
+    }
+
+    /// Records the trees it visits, and returns each of them.
+    private static final class Recorder implements PostorderVisitor<Unit, Tree> {
+        private final Predicate<Tree> skip;
+        private final List<Tree> entered = new ArrayList<>();
+        private final List<Tree> visited = new ArrayList<>();
+
+        Recorder(Predicate<Tree> skip) {
+            this.skip = skip;
+        }
+
+        List<String> kinds() {
+            return this.visited.stream().map(tree -> tree.getClass().getSimpleName()).toList();
+        }
+
+        @Override
+        public boolean enter(Tree tree, Unit data) {
+            this.entered.add(tree);
+            return !this.skip.test(tree);
+        }
+
+        private Tree record(Tree tree) {
+            this.visited.add(tree);
+            return tree;
+        }
+
+        @Override
+        public Tree visit(AssignmentTree assignmentTree, Unit data) {
+            return record(assignmentTree);
+        }
+
+        @Override
+        public Tree visit(BinaryOperationTree binaryOperationTree, Unit data) {
+            return record(binaryOperationTree);
+        }
+
+        @Override
+        public Tree visit(BlockTree blockTree, Unit data) {
+            return record(blockTree);
+        }
+
+        @Override
+        public Tree visit(DeclarationTree declarationTree, Unit data) {
+            return record(declarationTree);
+        }
+
+        @Override
+        public Tree visit(FunctionTree functionTree, Unit data) {
+            return record(functionTree);
+        }
+
+        @Override
+        public Tree visit(IdentExpressionTree identExpressionTree, Unit data) {
+            return record(identExpressionTree);
+        }
+
+        @Override
+        public Tree visit(LiteralTree literalTree, Unit data) {
+            return record(literalTree);
+        }
+
+        @Override
+        public Tree visit(LValueIdentTree lValueIdentTree, Unit data) {
+            return record(lValueIdentTree);
+        }
+
+        @Override
+        public Tree visit(NameTree nameTree, Unit data) {
+            return record(nameTree);
+        }
+
+        @Override
+        public Tree visit(NegateTree negateTree, Unit data) {
+            return record(negateTree);
+        }
+
+        @Override
+        public Tree visit(ProgramTree programTree, Unit data) {
+            return record(programTree);
+        }
+
+        @Override
+        public Tree visit(ReturnTree returnTree, Unit data) {
+            return record(returnTree);
+        }
+
+        @Override
+        public Tree visit(TypeTree typeTree, Unit data) {
+            return record(typeTree);
+        }
+    }
+}
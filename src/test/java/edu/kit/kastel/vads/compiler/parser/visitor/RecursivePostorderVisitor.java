@@ -4,6 +4,10 @@ import edu.kit.kastel.vads.compiler.parser.ast.*;
 
 /// A visitor that traverses a tree in postorder
 ///
+/// The depth of the tree is limited by the thread stack.
+/// [PostorderTraversal] visits trees in the same order without recursion,
+/// this is only kept as the reference it is tested against.
+///
 /// @param <T> a type for additional data
 /// @param <R> a type for a return type
 public class RecursivePostorderVisitor<T, R> implements Visitor<T, R> {
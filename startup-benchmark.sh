@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# Compares the startup latency of the regular installation (./gradlew installDist)
+# with the one using the AOT cache (./gradlew installAotDist).
+# Reports the time until the first byte of diagnostics for a program with a parse error,
+# and the time until a small valid program is fully compiled.
+set -e
+BASE_DIR="$(cd "$(dirname "$0")" && pwd)"
+RUNS="${RUNS:-20}"
+INVALID="$BASE_DIR/src/aot/corpus/parse-error.l1"
+VALID="$BASE_DIR/src/aot/corpus/arithmetic.l1"
+OUTPUT="$(mktemp)"
+trap 'rm -f "$OUTPUT"' EXIT
+
+now() {
+    date +%s%N
+}
+
+# prints the average of the given nanosecond values in milliseconds
+average() {
+    awk '{ sum += $1 } END { printf "%.1f", sum / NR / 1e6 }'
+}
+
+first_byte() {
+    local start
+    start=$(now)
+    "$1" "$INVALID" "$OUTPUT" 2>&1 | { head -c1 > /dev/null; echo $(($(now) - start)); cat > /dev/null; }
+}
+
+complete() {
+    local start
+    start=$(now)
+    "$1" "$VALID" "$OUTPUT"
+    echo $(($(now) - start))
+}
+
+printf "%-12s %22s %22s\n" "launcher" "first byte [ms]" "full compile [ms]"
+for variant in compiler compiler-aot; do
+    launcher="$BASE_DIR/build/install/$variant/bin/compiler"
+    if [ ! -x "$launcher" ]; then
+        echo "$launcher not found, run ./gradlew installDist installAotDist first" >&2
+        exit 1
+    fi
+    # warm up the page cache
+    complete "$launcher" > /dev/null
+    first=$(for _ in $(seq "$RUNS"); do first_byte "$launcher"; done | average)
+    full=$(for _ in $(seq "$RUNS"); do complete "$launcher"; done | average)
+    printf "%-12s %22s %22s\n" "$variant" "$first" "$full"
+done